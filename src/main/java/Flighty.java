@@ -24,6 +24,8 @@ import java.util.Scanner;
 import java.util.concurrent.TimeUnit;
 
 import search.SearchFlightTrips;
+import search.HotelPage;
+import search.HotelSort;
 import search.SearchHotels;
 import search.filters.FlightFilter;
 import search.filters.HotelFilter;
@@ -131,9 +133,9 @@ public class Flighty {
      * @author rengotap
      */
     public void checkData() {
-        if (data.getFlights().isEmpty() || data.getHotels().isEmpty()) {
+        if (!data.hasFlights() || data.getHotels().isEmpty()) {
             println(ANSI_RED + "FATAL: Input data is incomplete!" + ANSI_RESET);
-            if (data.getFlights().isEmpty())
+            if (!data.hasFlights())
                 println(ANSI_YELLOW + "DEBUG: Flight data is empty" + ANSI_RESET);
             if (data.getHotels().isEmpty())
                 println(ANSI_YELLOW + "DEBUG: Hotel data is empty" + ANSI_RESET);
@@ -1464,29 +1466,34 @@ public class Flighty {
      * @author rengotap
      */
     private void hotelResult(SearchPreferences prefs) {
-        List<Hotel> results = SearchHotels.execute(prefs);
+        final int PAGE_SIZE = 4; // will show up to 4 results at a time
+        HotelPage page = SearchHotels.executeRanked(prefs, HotelSort.PRICE, PAGE_SIZE, null);
+        List<Hotel> results = new ArrayList<Hotel>(page.getHotels());
         LocalDate from =
                 TimeUtils.getInstance().generateDate(prefs.hPref.get(HotelFilter.DATE_START));
         LocalDate to = TimeUtils.getInstance().generateDate(prefs.hPref.get(HotelFilter.DATE_END));
 
         if (!results.isEmpty()) {
-            List<String> options = new ArrayList<String>();
-            int numDisplay = 4; // will show up to 4 results
-            if (results.size() < 4)
-                numDisplay = results.size();
-
-            for (int i = 0; i < numDisplay; i++) {
-                options.add(displayHotelSimple(results.get(i), from, to));
-            }
+            final String OPT_MORE = "Show more results";
             final String OPT_BACK = "Return to main menu";
-            options.add(OPT_BACK);
             while (true) {
+                List<String> options = new ArrayList<String>();
+                for (Hotel hotel : results)
+                    options.add(displayHotelSimple(hotel, from, to));
+                if (page.hasNext())
+                    options.add(OPT_MORE);
+                options.add(OPT_BACK);
+
                 clr();
                 println('\n' + ANSI_BLACK + ANSI_WHITE_BG + " SELECT HOTEL FOR DETAILS "
                         + ANSI_RESET + '\n');
                 String[] response = menuLong("Enter a Number", options);
                 if (response[0].equals(OPT_BACK)) {
                     return;
+                } else if (response[0].equals(OPT_MORE)) {
+                    page = SearchHotels.executeRanked(prefs, HotelSort.PRICE, PAGE_SIZE,
+                            page.getNext());
+                    results.addAll(page.getHotels());
                 } else {
                     if (investigateHotel(results.get(Integer.parseInt(response[1])), from, to))
                         return;
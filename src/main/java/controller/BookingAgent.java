@@ -9,6 +9,8 @@ import database.Data;
 import database.DatabaseData;
 import model.users.User;
 import model.users.info.Passport;
+import search.SearchFlightTrips;
+import search.SearchHotels;
 
 /**
  * Handes booking
@@ -22,6 +24,7 @@ public class BookingAgent {
 
     public Booking bookListing(Room bookable, User user, LocalDate from, LocalDate to) {
         bookable.bookRange(from, to);
+        SearchHotels.getCache().invalidate(bookable.getTravelObject().getId());
         final Booking booking = new Booking(user, bookable, from, to);
         addLinks(bookable, user, booking);
         return booking;
@@ -29,6 +32,7 @@ public class BookingAgent {
 
     public Booking bookListing(Seat bookable, User user, Passport owner) {
         bookable.book();
+        SearchFlightTrips.getCache().invalidate(bookable.getTravelObject().getId());
         final Booking booking = new Booking(user, bookable);
         bookable.setOwner(owner);
         addLinks(bookable, user, booking);
@@ -43,10 +47,14 @@ public class BookingAgent {
     public void unbookListing(Booking booking) {
         Bookable booked = booking.getBooked();
 
+        // a freed option can add the flight or hotel to searches that didn't show it before,
+        // those results aren't tracked so every cached result of that kind is dropped
         if (booked instanceof Seat) {
             ((Seat) booked).unbook();
+            SearchFlightTrips.getCache().clear();
         } else {
             ((Room) booked).unbookRange(booking.getFrom(), booking.getTo());
+            SearchHotels.getCache().clear();
         }
 
         data.getBookings().remove(booking);
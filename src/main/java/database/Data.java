@@ -1,5 +1,6 @@
 package database;
 
+import java.time.LocalDate;
 import java.util.List;
 import model.Booking;
 import model.bookables.flight.Flight;
@@ -26,4 +27,29 @@ public abstract class Data {
     public abstract List<Booking> getBookings();
 
     public abstract void saveAll();
+
+    /**
+     * Makes sure the flights departing in a window are in getFlights() before a search
+     * Data that keeps every flight in memory has nothing to load
+     * @param first first departure day a search can use
+     * @param last last departure day a search can use, inclusive
+     */
+    public void loadFlightDays(LocalDate first, LocalDate last) {
+    }
+
+    /**
+     * Checks if there are any flights at all, even ones that are not loaded yet
+     * @return true if there is at least one flight
+     */
+    public boolean hasFlights() {
+        return !getFlights().isEmpty();
+    }
+
+    /**
+     * Adds a flight to getFlights()
+     * @param flight flight to add
+     */
+    public void addFlight(Flight flight) {
+        getFlights().add(flight);
+    }
 }
@@ -3,18 +3,30 @@ package database;
 import com.mongodb.*;
 import com.mongodb.util.JSON;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 public class Database {
     private static Database database;
     private Map<String, DBCollection> collections;
 
     private Database() {
+        this("Flighty");
+    }
+
+    /**
+     * Constructor for a database other than the app's, used by the write benchmark
+     * @param name name of the mongo database
+     */
+    Database(String name) {
         this.collections = new HashMap<>();
         try {
             @SuppressWarnings("deprecation")
-            DB mongoDatabase = new MongoClient().getDB("Flighty");
+            DB mongoDatabase = new MongoClient().getDB(name);
             collections.put("Flights", mongoDatabase.getCollection("Flights"));
             collections.put("Hotels", mongoDatabase.getCollection("Hotels"));
             collections.put("Users", mongoDatabase.getCollection("Users"));
@@ -80,6 +92,112 @@ public class Database {
         collections.get(collectionName).update(old, BasicDBObject.parse(newObj.toString()));
     }
 
+    /**
+     * Finds the documents whose field starts with any of the given prefixes, anchored prefixes
+     * are answered from an index on the field instead of a collection scan
+     * @param collectionName collection to search
+     * @param field string field to match
+     * @param prefixes literal prefixes
+     * @return cursor over the matches
+     */
+    public DBCursor getByPrefix(final String collectionName, String field, List<String> prefixes) {
+        List<Pattern> patterns = new ArrayList<>();
+        for (String prefix : prefixes) {
+            // plain escapes rather than \Q..\E keep the regex a simple prefix the index can bound
+            StringBuilder regex = new StringBuilder("^");
+            for (char c : prefix.toCharArray()) {
+                if ("\\^$.|?*+()[]{}".indexOf(c) >= 0)
+                    regex.append('\\');
+                regex.append(c);
+            }
+            patterns.add(Pattern.compile(regex.toString()));
+        }
+        return collections.get(collectionName).find(new BasicDBObject(field, new BasicDBObject("$in", patterns)));
+    }
+
+    /**
+     * Creates an ascending index on a field if it does not exist yet
+     * @param collectionName collection to index
+     * @param field field to index
+     */
+    public void createIndex(final String collectionName, String field) {
+        collections.get(collectionName).createIndex(new BasicDBObject(field, 1));
+    }
+
+    public long count(final String collectionName) {
+        return collections.get(collectionName).count();
+    }
+
+    /**
+     * Starts a batch of writes that are sent as one unordered bulk operation per collection
+     * @return empty batch
+     */
+    public Batch batch() {
+        return new Batch();
+    }
+
+    /**
+     * Pending writes grouped by collection, every write is keyed on the document's id field
+     */
+    public class Batch {
+        private final Map<String, BulkWriteOperation> operations = new LinkedHashMap<>();
+        private int size;
+
+        private BulkWriteOperation operation(String collectionName) {
+            return operations.computeIfAbsent(collectionName,
+                    name -> collections.get(name).initializeUnorderedBulkOperation());
+        }
+
+        /**
+         * Queues a full document write, inserting it if no document has its id yet
+         * @param collectionName collection to write to
+         * @param id value of the document's id field
+         * @param newObj object whose toString() is the document
+         * @return this batch
+         */
+        public <T> Batch replace(String collectionName, String id, T newObj) {
+            operation(collectionName).find(new BasicDBObject("id", id)).upsert()
+                    .replaceOne(BasicDBObject.parse(newObj.toString()));
+            size++;
+            return this;
+        }
+
+        /**
+         * Queues an update operator document, like $set, for the first document matching a query
+         * @param collectionName collection to write to
+         * @param query query that should include the id field
+         * @param update update operators to apply
+         * @return this batch
+         */
+        public Batch update(String collectionName, DBObject query, DBObject update) {
+            operation(collectionName).find(query).updateOne(update);
+            size++;
+            return this;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Sends the queued writes, one round trip per collection, and empties the batch
+         */
+        public void execute() {
+            for (BulkWriteOperation operation : operations.values())
+                operation.execute();
+            operations.clear();
+            size = 0;
+        }
+    }
+
+    /**
+     * Drops every collection, only meant for the benchmark's own database
+     */
+    void dropAll() {
+        for (DBCollection collection : collections.values())
+            collection.drop();
+    }
+
     @SuppressWarnings("deprecation")
     public <T> void delete(final String collectionName, T obj) {
         collections.get(collectionName).remove((DBObject) JSON.parse(obj.toString()));
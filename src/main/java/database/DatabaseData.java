@@ -1,20 +1,34 @@
 package database;
 
+import com.mongodb.BasicDBObject;
 import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
 import model.Booking;
+import model.bookables.Bookable;
+import model.bookables.TravelObject;
 import model.bookables.flight.Flight;
+import model.bookables.flight.Seat;
 import model.bookables.hotel.Hotel;
 import model.users.User;
+import utils.TimeUtils;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class DatabaseData extends Data {
+    // documents per round trip, large enough that readers rarely wait on the network
+    public static final int CURSOR_BATCH_SIZE = 1000;
+    // days of flights kept in memory, 0 loads the whole Flights collection at startup
+    public static final String FLIGHT_DAYS_PROPERTY = "flighty.data.flightDays";
     private final Database db;
     private List<User> users;
     private List<Flight> flights;
     private List<Hotel> hotels;
     private List<Booking> bookings;
+    private final FlightDays flightDays;
 
     /**
      * Constructor
@@ -25,6 +39,10 @@ public class DatabaseData extends Data {
         this.flights = new ArrayList<>();
         this.hotels = new ArrayList<>();
         this.bookings = new ArrayList<>();
+        int days = Integer.getInteger(FLIGHT_DAYS_PROPERTY, 0);
+        this.flightDays = days > 0 ? new FlightDays(days, this::loadFlights, this::getBookedFlights) : null;
+        if (flightDays != null)
+            db.createIndex("Flights", "departureTime");
         loadAll();
     }
 
@@ -51,69 +69,143 @@ public class DatabaseData extends Data {
         return bookings;
     }
 
-    private void loadFlights() {
-        DBCursor cursor = db.getAll("Flights");
-        while (cursor.hasNext()) {
-            flights.add(new Flight(cursor.next()));
-        }
+    /**
+     * Loads the departure days a search needs when only some days of flights are kept
+     */
+    @Override
+    public synchronized void loadFlightDays(LocalDate first, LocalDate last) {
+        if (flightDays != null && flightDays.load(first, last))
+            flights = flightDays.getFlights();
     }
 
-    private void loadHotels() {
-        DBCursor cursor = db.getAll("Hotels");
-        while (cursor.hasNext()) {
-            hotels.add(new Hotel(cursor.next()));
-        }
+    @Override
+    public boolean hasFlights() {
+        return flightDays == null ? super.hasFlights() : db.count("Flights") > 0;
     }
 
-    private void loadUsers() {
-        DBCursor cursor = db.getAll("Users");
-        while (cursor.hasNext()) {
-            users.add(new User(cursor.next()));
+    @Override
+    public synchronized void addFlight(Flight flight) {
+        if (flightDays == null) {
+            super.addFlight(flight);
+            return;
         }
+        flightDays.add(flight);
+        flights = flightDays.getFlights();
+    }
+
+    /**
+     * Flights with a seat booked this session, their days stay loaded so unbooking the seat
+     * changes a flight that is saved
+     */
+    private Set<Flight> getBookedFlights() {
+        Set<Flight> booked = new HashSet<>();
+        for (Booking booking : bookings)
+            if (booking.getBooked() instanceof Seat)
+                booked.add((Flight) booking.getBooked().getTravelObject());
+        return booked;
     }
 
-    private void loadBookings() {
-        DBCursor cursor = db.getAll("Bookings");
-        while (cursor.hasNext()) {
-            bookings.add(new Booking(cursor.next()));
+    /**
+     * Loads the flights departing on some days, departure times are stored as "M/d/y HH:mm" so a
+     * day is a prefix of the field
+     */
+    private List<Flight> loadFlights(List<LocalDate> days) {
+        TimeUtils timeUtils = TimeUtils.getInstance();
+        List<String> prefixes = new ArrayList<>();
+        for (LocalDate day : days)
+            prefixes.add(timeUtils.toString(day) + " ");
+        List<Flight> loaded = new ArrayList<>();
+        try (PipelinedLoader loader = new PipelinedLoader(Runtime.getRuntime().availableProcessors())) {
+            loader.load(db.getByPrefix("Flights", "departureTime", prefixes).batchSize(CURSOR_BATCH_SIZE),
+                    Flight::new, loaded);
+            loader.join();
         }
+        return loaded;
     }
 
-    private void saveUsers() {
+    private void saveUsers(Database.Batch batch, List<Runnable> written) {
         for (User user : users) {
-            db.update("Users", user.getId(), user);
+            if (user.isDirty()) {
+                batch.replace("Users", user.getId(), user);
+                written.add(user::markClean);
+            }
         }
     }
 
-    private void saveFlights() {
+    private void saveFlights(Database.Batch batch, List<Runnable> written) {
         for (Flight flight : getFlights()) {
-            db.update("Flights", flight.getId(), flight);
+            saveTravelObject(batch, written, "Flights", flight);
         }
     }
 
-    private void saveHotels() {
+    private void saveHotels(Database.Batch batch, List<Runnable> written) {
         for (Hotel hotel : getHotels()) {
-            db.update("Hotels", hotel.getId(), hotel);
+            saveTravelObject(batch, written, "Hotels", hotel);
         }
     }
 
-    private void saveBookings() {
+    /**
+     * Writes the whole document if its own fields changed, otherwise only the bookables that did
+     */
+    private void saveTravelObject(Database.Batch batch, List<Runnable> written, String collectionName,
+            TravelObject travelObject) {
+        if (!travelObject.isDirty())
+            return;
+        if (travelObject.isDocumentDirty()) {
+            batch.replace(collectionName, travelObject.getId(), travelObject);
+        }
+        else {
+            for (Bookable bookable : travelObject.getOptions()) {
+                if (bookable.isDirty()) {
+                    DBObject query = new BasicDBObject("id", travelObject.getId()).append("bookables.id", bookable.getId());
+                    batch.update(collectionName, query, bookable.getUpdate("bookables.$"));
+                }
+            }
+        }
+        written.add(travelObject::markClean);
+    }
+
+    private void saveBookings(Database.Batch batch, List<Runnable> written) {
         for (Booking booking : bookings) {
-            db.update("Bookings", booking.getId(), booking);
+            if (booking.isDirty()) {
+                batch.replace("Bookings", booking.getId(), booking);
+                written.add(booking::markClean);
+            }
         }
     }
 
+    /**
+     * Loads the four collections at once, each cursor feeding the same pool of conversion workers
+     */
     private void loadAll() {
-        loadFlights();
-        loadHotels();
-        loadUsers();
-        loadBookings();
+        try (PipelinedLoader loader = new PipelinedLoader(Runtime.getRuntime().availableProcessors())) {
+            if (flightDays == null)
+                loader.load(cursor("Flights"), Flight::new, flights);
+            loader.load(cursor("Hotels"), Hotel::new, hotels);
+            loader.load(cursor("Users"), User::new, users);
+            loader.load(cursor("Bookings"), Booking::new, bookings);
+            loader.join();
+        }
+    }
+
+    private DBCursor cursor(String collectionName) {
+        return db.getAll(collectionName).batchSize(CURSOR_BATCH_SIZE);
     }
 
+    /**
+     * Writes the flights, hotels, users and bookings that changed since they were loaded or last saved,
+     * new ones are inserted and each collection is sent as one bulk write
+     * Nothing is marked clean until the writes went through, so a failed save is tried again in full
+     */
     public void saveAll() {
-        saveFlights();
-        saveHotels();
-        saveUsers();
-        saveBookings();
+        Database.Batch batch = db.batch();
+        List<Runnable> written = new ArrayList<>();
+        saveFlights(batch, written);
+        saveHotels(batch, written);
+        saveUsers(batch, written);
+        saveBookings(batch, written);
+        batch.execute();
+        for (Runnable clean : written)
+            clean.run();
     }
 }
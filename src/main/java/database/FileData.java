@@ -0,0 +1,206 @@
+package database;
+
+import com.mongodb.DBObject;
+import com.mongodb.DBObjectCodec;
+import model.Booking;
+import model.bookables.flight.Flight;
+import model.bookables.hotel.Hotel;
+import model.users.User;
+import org.bson.BsonType;
+import org.bson.codecs.DecoderContext;
+import org.bson.json.JsonReader;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Data kept in the mongoimport json arrays under a directory instead of a running MongoDB
+ * Collections are parsed in parallel, one stream per file, and saved by renaming over a temp file
+ */
+public class FileData extends Data {
+    public static final String DEFAULT_DIRECTORY = "database";
+
+    private final Path directory;
+    private final List<Flight> flights;
+    private final List<Hotel> hotels;
+    private final List<User> users;
+    private final List<Booking> bookings;
+    private final Map<String, Integer> savedSizes = new HashMap<>();
+
+    /**
+     * Constructor over the repository's database directory
+     */
+    public FileData() {
+        this(Paths.get(DEFAULT_DIRECTORY));
+    }
+
+    /**
+     * Constructor
+     * @param directory directory holding flights.json, hotels.json, users.json and bookings.json
+     */
+    public FileData(Path directory) {
+        this.directory = directory;
+        CompletableFuture<List<Flight>> flights = loadAsync("flights.json", Flight::new);
+        CompletableFuture<List<Hotel>> hotels = loadAsync("hotels.json", Hotel::new);
+        CompletableFuture<List<User>> users = loadAsync("users.json", User::new);
+        CompletableFuture<List<Booking>> bookings = loadAsync("bookings.json", Booking::new);
+        try {
+            this.flights = flights.join();
+            this.hotels = hotels.join();
+            this.users = users.join();
+            this.bookings = bookings.join();
+            savedSizes.put("flights.json", this.flights.size());
+            savedSizes.put("hotels.json", this.hotels.size());
+            savedSizes.put("users.json", this.users.size());
+            savedSizes.put("bookings.json", this.bookings.size());
+        }
+        catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw e;
+        }
+    }
+
+    public List<Flight> getFlights() {
+        return flights;
+    }
+
+    public List<Hotel> getHotels() {
+        return hotels;
+    }
+
+    public List<User> getUsers() {
+        return users;
+    }
+
+    public List<Booking> getBookings() {
+        return bookings;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    private <T> CompletableFuture<List<T>> loadAsync(String fileName, Function<DBObject, T> factory) {
+        Path file = directory.resolve(fileName);
+        return CompletableFuture.supplyAsync(() -> load(file, factory));
+    }
+
+    /**
+     * Reads a json array one document at a time, so only the built objects are held in memory
+     * @param file json array of documents, may be missing
+     * @param factory builds a model object from a document
+     * @return objects in file order, empty if the file does not exist
+     */
+    static <T> List<T> load(Path file, Function<DBObject, T> factory) {
+        List<T> list = new ArrayList<>();
+        if (!Files.exists(file))
+            return list;
+        DBObjectCodec codec = new DBObjectCodec();
+        DecoderContext context = DecoderContext.builder().build();
+        try (BufferedReader in = Files.newBufferedReader(file)) {
+            JsonReader reader = new JsonReader(in);
+            reader.readStartArray();
+            while (reader.readBsonType() != BsonType.END_OF_DOCUMENT)
+                list.add(factory.apply(codec.decode(reader, context)));
+            reader.readEndArray();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return list;
+    }
+
+    /**
+     * Rewrites each collection that had an entity change, or was added to or removed from, since
+     * it was loaded or last saved. The file is written to a temp file next to it, forced to disk and
+     * then renamed over the old one, so a crash while saving leaves either the old or the new file,
+     * never a partial one
+     */
+    public synchronized void saveAll() {
+        save("flights.json", flights, Flight::isDirty, Flight::markClean);
+        save("hotels.json", hotels, Hotel::isDirty, Hotel::markClean);
+        save("users.json", users, User::isDirty, User::markClean);
+        save("bookings.json", bookings, Booking::isDirty, Booking::markClean);
+    }
+
+    private <T> void save(String fileName, List<T> objects, Predicate<T> dirty, Consumer<T> clean) {
+        if (savedSizes.get(fileName) == objects.size() && objects.stream().noneMatch(dirty))
+            return;
+        write(fileName, objects);
+        objects.forEach(clean);
+        savedSizes.put(fileName, objects.size());
+    }
+
+    private void write(String fileName, List<?> objects) {
+        Path target = directory.resolve(fileName);
+        try {
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, fileName, ".tmp");
+            try {
+                try (BufferedWriter out = Files.newBufferedWriter(temp)) {
+                    out.write("[");
+                    for (int i = 0; i < objects.size(); i++) {
+                        if (i > 0)
+                            out.write(",\n");
+                        out.write(objects.get(i).toString());
+                    }
+                    out.write("]\n");
+                }
+                // on disk before the rename, or a crash could leave the new name on an empty file
+                try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                    channel.force(true);
+                }
+                try {
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                }
+                catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Loads the database directory and prints how long it took and how much heap it holds
+     * Run against the same dump as the MongoDB path to compare startup cost
+     * @param args optional directory, defaults to database
+     */
+    public static void main(String[] args) {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+        long start = System.nanoTime();
+        Data data = args.length > 0 ? new FileData(Paths.get(args[0])) : new FileData();
+        long elapsed = System.nanoTime() - start;
+        System.gc();
+        long heapAfter = runtime.totalMemory() - runtime.freeMemory();
+        System.out.println("Loaded " + data.getFlights().size() + " flights, " + data.getHotels().size() + " hotels, "
+                + data.getUsers().size() + " users, " + data.getBookings().size() + " bookings in "
+                + elapsed / 1_000_000 + " ms using " + (heapAfter - heapBefore) / 1024 + " KB of heap");
+    }
+}
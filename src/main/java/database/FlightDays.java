@@ -0,0 +1,174 @@
+package database;
+
+import model.bookables.flight.Flight;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Flights kept in memory by departure day, loaded when a search needs the day
+ * Holds at most maxDays days, least recently used days are dropped first, and every day outside
+ * the current window is dropped once the heap is nearly full after a collection
+ * Days with unsaved changes, or with a flight a live booking points at, are never dropped, a
+ * dropped day comes back as new objects and changes made through the old ones would be lost
+ */
+public class FlightDays {
+    // share of the heap still used after a collection at which cold days are dropped
+    public static final double HEAP_PRESSURE = 0.8;
+
+    private final int maxDays;
+    private final Function<List<LocalDate>, List<Flight>> loader;
+    private final Supplier<Set<Flight>> inUse;
+    private final LinkedHashMap<LocalDate, List<Flight>> days = new LinkedHashMap<>(16, 0.75f, true);
+    private List<Flight> resident = new ArrayList<>();
+
+    /**
+     * Constructor
+     * @param maxDays most days to keep outside the window being searched
+     * @param loader loads every flight departing on any of the given days
+     */
+    public FlightDays(int maxDays, Function<List<LocalDate>, List<Flight>> loader) {
+        this(maxDays, loader, Collections::emptySet);
+    }
+
+    /**
+     * Constructor
+     * @param maxDays most days to keep outside the window being searched
+     * @param loader loads every flight departing on any of the given days
+     * @param inUse flights that live bookings point at, asked for when a day is about to be dropped
+     */
+    public FlightDays(int maxDays, Function<List<LocalDate>, List<Flight>> loader,
+            Supplier<Set<Flight>> inUse) {
+        this.maxDays = maxDays;
+        this.loader = loader;
+        this.inUse = inUse;
+    }
+
+    /**
+     * Gets the flights of every loaded day in departure day order
+     * The list is replaced, never changed, when days are loaded or dropped, so indexes built
+     * over an older list see it as stale
+     * @return loaded flights
+     */
+    public synchronized List<Flight> getFlights() {
+        return resident;
+    }
+
+    public synchronized int getDayCount() {
+        return days.size();
+    }
+
+    public synchronized boolean isLoaded(LocalDate day) {
+        return days.containsKey(day);
+    }
+
+    /**
+     * Makes sure every day in a window is loaded, loading the missing ones in one query
+     * @param first first departure day needed
+     * @param last last departure day needed, inclusive
+     * @return true if days were loaded or dropped, so getFlights() returns a new list
+     */
+    public synchronized boolean load(LocalDate first, LocalDate last) {
+        Set<LocalDate> window = new HashSet<>();
+        List<LocalDate> missing = new ArrayList<>();
+        for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+            window.add(day);
+            // get() also marks the day as just used
+            if (days.get(day) == null)
+                missing.add(day);
+        }
+
+        boolean changed = false;
+        if (!missing.isEmpty()) {
+            Map<LocalDate, List<Flight>> loaded = new HashMap<>();
+            for (LocalDate day : missing)
+                loaded.put(day, new ArrayList<>());
+            for (Flight flight : loader.apply(missing)) {
+                List<Flight> day = loaded.get(flight.getDepartureTime().toLocalDate());
+                if (day != null)
+                    day.add(flight);
+            }
+            for (LocalDate day : missing)
+                days.put(day, loaded.get(day));
+            changed = true;
+        }
+
+        changed |= drop(window, maxDays);
+        if (isUnderMemoryPressure())
+            changed |= drop(window, 0);
+        if (changed)
+            rebuild();
+        return changed;
+    }
+
+    /**
+     * Adds a flight to its departure day, loading the day first so it is not mistaken for the
+     * whole day later
+     * @param flight flight to add
+     */
+    public synchronized void add(Flight flight) {
+        LocalDate day = flight.getDepartureTime().toLocalDate();
+        load(day, day);
+        days.get(day).add(flight);
+        rebuild();
+    }
+
+    /**
+     * Drops the least recently used days outside the window until at most limit days are left
+     */
+    private boolean drop(Set<LocalDate> window, int limit) {
+        boolean changed = false;
+        Set<Flight> booked = null;
+        Iterator<Map.Entry<LocalDate, List<Flight>>> eldest = days.entrySet().iterator();
+        while (days.size() > limit && eldest.hasNext()) {
+            Map.Entry<LocalDate, List<Flight>> day = eldest.next();
+            if (window.contains(day.getKey()) || day.getValue().stream().anyMatch(Flight::isDirty))
+                continue;
+            if (booked == null)
+                booked = inUse.get();
+            if (day.getValue().stream().anyMatch(booked::contains))
+                continue;
+            eldest.remove();
+            changed = true;
+        }
+        return changed;
+    }
+
+    private void rebuild() {
+        List<Flight> flights = new ArrayList<>();
+        for (List<Flight> day : new TreeMap<>(days).values())
+            flights.addAll(day);
+        resident = flights;
+    }
+
+    /**
+     * Checks the heap usage left after the last collection, garbage waiting to be collected is
+     * not counted
+     * @return true if a heap pool is fuller than HEAP_PRESSURE after its last collection
+     */
+    static boolean isUnderMemoryPressure() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() != MemoryType.HEAP || !pool.isCollectionUsageThresholdSupported())
+                continue;
+            MemoryUsage usage = pool.getCollectionUsage();
+            if (usage != null && usage.getMax() > 0 && usage.getUsed() > usage.getMax() * HEAP_PRESSURE)
+                return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,104 @@
+package database;
+
+import com.mongodb.DBObject;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Builds model objects from several cursors at once
+ * One reader per cursor cuts the documents into chunks and hands them to a shared pool of workers
+ * through a bounded queue, when the queue is full the reader converts the chunk itself, so readers
+ * never get far ahead of the workers
+ */
+public class PipelinedLoader implements AutoCloseable {
+    public static final int CHUNK_SIZE = 256;
+
+    // readers wait on the database most of the time, so each gets its own thread instead of a pool slot
+    private static final Executor READER = runnable -> {
+        Thread thread = new Thread(runnable, "loader-reader");
+        thread.setDaemon(true);
+        thread.start();
+    };
+
+    private final ExecutorService workers;
+    private final List<CompletableFuture<?>> readers = new ArrayList<>();
+
+    /**
+     * Constructor
+     * @param threads number of conversion workers, the queue holds two chunks per worker
+     */
+    public PipelinedLoader(int threads) {
+        this.workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 2), runnable -> {
+                    Thread thread = new Thread(runnable, "loader");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Starts reading a cursor on its own thread
+     * @param cursor documents in collection order
+     * @param factory builds a model object from a document, must not depend on other collections
+     * @param into list the objects are added to in cursor order once the load is joined
+     */
+    public <T> void load(Iterator<DBObject> cursor, Function<DBObject, T> factory, List<T> into) {
+        readers.add(CompletableFuture.runAsync(() -> into.addAll(read(cursor, factory)), READER));
+    }
+
+    private <T> List<T> read(Iterator<DBObject> cursor, Function<DBObject, T> factory) {
+        List<CompletableFuture<List<T>>> chunks = new ArrayList<>();
+        while (cursor.hasNext()) {
+            List<DBObject> chunk = new ArrayList<>(CHUNK_SIZE);
+            while (chunk.size() < CHUNK_SIZE && cursor.hasNext())
+                chunk.add(cursor.next());
+            chunks.add(CompletableFuture.supplyAsync(() -> convert(chunk, factory), workers));
+        }
+        List<T> objects = new ArrayList<>();
+        for (CompletableFuture<List<T>> chunk : chunks)
+            objects.addAll(chunk.join());
+        return objects;
+    }
+
+    private static <T> List<T> convert(List<DBObject> chunk, Function<DBObject, T> factory) {
+        List<T> objects = new ArrayList<>(chunk.size());
+        for (DBObject object : chunk)
+            objects.add(factory.apply(object));
+        return objects;
+    }
+
+    /**
+     * Waits for every started load
+     * @throws RuntimeException the first failure of a reader or a conversion
+     */
+    public void join() {
+        try {
+            CompletableFuture.allOf(readers.toArray(new CompletableFuture<?>[0])).join();
+        }
+        catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            while (cause instanceof CompletionException && cause.getCause() != null)
+                cause = cause.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            throw e;
+        }
+        finally {
+            readers.clear();
+        }
+    }
+
+    public void close() {
+        workers.shutdown();
+    }
+}
@@ -20,11 +20,13 @@ public class Booking {
     private User user;
     private LocalDate from;
     private LocalDate to;
+    private boolean dirty;
 
     public Booking(final User user, final Seat booked) {
         this.id = UUID.randomUUID().toString();
         this.user = user;
         this.booked = booked;
+        this.dirty = true;
     }
 
     public Booking(final User user, final Room booked, final LocalDate from, final LocalDate to) {
@@ -33,6 +35,7 @@ public class Booking {
         this.booked = booked;
         this.from = from;
         this.to = to;
+        this.dirty = true;
     }
 
     public LocalDate getFrom() {
@@ -51,6 +54,18 @@ public class Booking {
         this.from = timeUtils.generateDate((String) object.get("from"));
     }
 
+    /**
+     * Checks if the booking was made since the data was loaded or last saved
+     * @return true if it needs to be written
+     */
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    public void markClean() {
+        dirty = false;
+    }
+
     public String getId() {
         return id;
     }
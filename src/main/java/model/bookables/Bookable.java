@@ -1,5 +1,6 @@
 package model.bookables;
 
+import com.mongodb.BasicDBObject;
 import com.mongodb.DBObject;
 import java.util.UUID;
 
@@ -10,6 +11,7 @@ public abstract class Bookable implements Comparable<Bookable> {
     protected String col;
     protected double price;
     protected TravelObject travelObject;
+    private boolean dirty;
 
     /**
      * Constructor for a bookable, with a row and a col
@@ -22,6 +24,7 @@ public abstract class Bookable implements Comparable<Bookable> {
         this.col = col;
         this.id = UUID.randomUUID().toString();
         this.travelObject = travelObject;
+        this.dirty = true;
     }
 
     public Bookable(int row, String col, DBObject object, TravelObject travelObject) {
@@ -38,13 +41,14 @@ public abstract class Bookable implements Comparable<Bookable> {
         this.id = UUID.randomUUID().toString();
         this.price = price;
         this.travelObject = travelObject;
+        this.dirty = true;
     }
 
     /**
      * Gets bookable's ID
      * @return UUID
      */
-    protected String getId() {
+    public String getId() {
         return this.id;
     }
 
@@ -72,6 +76,52 @@ public abstract class Bookable implements Comparable<Bookable> {
         return this.price;
     }
 
+    /**
+     * Checks if the bookable can still be booked, used for the travel object's price stats
+     * @return true unless it is booked for good
+     */
+    public boolean isAvailable() {
+        return true;
+    }
+
+    /**
+     * Gets the group the bookable's price is tracked under, like a seat class
+     * @return category name
+     */
+    public String getCategory() {
+        return "";
+    }
+
+    /**
+     * Flags the bookable, and the travel object stored with it, as changed since the last save
+     */
+    protected void markDirty() {
+        dirty = true;
+        if (travelObject != null)
+            travelObject.markBookableDirty();
+    }
+
+    /**
+     * Checks if the bookable changed since it was loaded or last saved
+     * @return true if it needs to be written
+     */
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    public void markClean() {
+        dirty = false;
+    }
+
+    /**
+     * Makes the update that writes this bookable's changes inside its travel object's document
+     * @param path path of the bookable in the document, like bookables.$
+     * @return update replacing the stored bookable, subclasses send only the fields that change
+     */
+    public DBObject getUpdate(String path) {
+        return new BasicDBObject("$set", new BasicDBObject(path, BasicDBObject.parse(toString())));
+    }
+
     /**
      * Method to compare a bookable to another
      * @return 0 if the compared bookable is null or the same as this bookable
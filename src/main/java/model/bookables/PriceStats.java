@@ -0,0 +1,115 @@
+package model.bookables;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Price aggregates over a travel object's available bookables, overall and per seat class or
+ * room type
+ * Prices are kept in counted sorted maps, so a booking or unbooking updates the minimum,
+ * maximum, sum and count in O(log n) instead of rescanning every bookable
+ */
+public class PriceStats {
+    private final Aggregate all = new Aggregate();
+    private final Map<String, Aggregate> byCategory = new TreeMap<>();
+
+    private static class Aggregate {
+        private final TreeMap<Double, Integer> prices = new TreeMap<>();
+        private double sum;
+        private int count;
+
+        void add(double price) {
+            prices.merge(price, 1, Integer::sum);
+            sum += price;
+            count++;
+        }
+
+        void remove(double price) {
+            Integer n = prices.get(price);
+            if (n == null)
+                return;
+            if (n == 1)
+                prices.remove(price);
+            else
+                prices.put(price, n - 1);
+            sum -= price;
+            count--;
+            // keeps rounding from leaving a little left over once it's empty
+            if (count == 0)
+                sum = 0;
+        }
+    }
+
+    void add(String category, double price) {
+        all.add(price);
+        byCategory.computeIfAbsent(category, k -> new Aggregate()).add(price);
+    }
+
+    void remove(String category, double price) {
+        all.remove(price);
+        Aggregate aggregate = byCategory.get(category);
+        if (aggregate == null)
+            return;
+        aggregate.remove(price);
+        if (aggregate.count == 0)
+            byCategory.remove(category);
+    }
+
+    /**
+     * @return lowest available price, Integer.MAX_VALUE if nothing is available
+     */
+    public double getMin() {
+        return all.count == 0 ? Integer.MAX_VALUE : all.prices.firstKey();
+    }
+
+    /**
+     * @return highest available price, 0 if nothing is available
+     */
+    public double getMax() {
+        return all.count == 0 ? 0 : all.prices.lastKey();
+    }
+
+    public double getSum() {
+        return all.sum;
+    }
+
+    public int getCount() {
+        return all.count;
+    }
+
+    /**
+     * @param category seat class or room type
+     * @return lowest available price in it, Integer.MAX_VALUE if nothing in it is available
+     */
+    public double getMin(String category) {
+        Aggregate aggregate = byCategory.get(category);
+        return aggregate == null ? Integer.MAX_VALUE : aggregate.prices.firstKey();
+    }
+
+    /**
+     * @param category seat class or room type
+     * @return highest available price in it, 0 if nothing in it is available
+     */
+    public double getMax(String category) {
+        Aggregate aggregate = byCategory.get(category);
+        return aggregate == null ? 0 : aggregate.prices.lastKey();
+    }
+
+    public double getSum(String category) {
+        Aggregate aggregate = byCategory.get(category);
+        return aggregate == null ? 0 : aggregate.sum;
+    }
+
+    public int getCount(String category) {
+        Aggregate aggregate = byCategory.get(category);
+        return aggregate == null ? 0 : aggregate.count;
+    }
+
+    /**
+     * @return the seat classes or room types with something available
+     */
+    public Iterable<String> getCategories() {
+        return Collections.unmodifiableSet(byCategory.keySet());
+    }
+}
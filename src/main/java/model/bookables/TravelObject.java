@@ -16,6 +16,11 @@ public abstract class TravelObject {
     protected double rating;
     protected List<String> features;
     protected List<SearchFilter> filters;
+    private PriceStats priceStats;
+    private List<Bookable> priceSource;
+    private int priceSourceSize;
+    private boolean dirty;
+    private boolean documentDirty;
 
     @SuppressWarnings("unchecked")
     public TravelObject(DBObject object) {
@@ -53,6 +58,7 @@ public abstract class TravelObject {
         this.bookables = bookables;
         this.features = new ArrayList<String>();
         this.filters = new ArrayList<>();
+        markDirty();
     }
 
     protected TravelObject() {
@@ -62,6 +68,7 @@ public abstract class TravelObject {
         this.bookables = new ArrayList<Bookable>();
         this.features = new ArrayList<String>();
         this.filters = new ArrayList<>();
+        markDirty();
     }
 
     /**
@@ -81,7 +88,52 @@ public abstract class TravelObject {
         return company;
     }
 
-    public double getMinCost() {
+    /**
+     * Gets the price stats of the available bookables, rebuilt if bookables were added or
+     * removed since they were made
+     * @return stats kept up to date as bookables are booked and unbooked
+     */
+    public synchronized PriceStats getPriceStats() {
+        if (priceStats == null || priceSource != bookables || priceSourceSize != bookables.size()) {
+            priceStats = new PriceStats();
+            for (Bookable bookable : bookables)
+                if (bookable.isAvailable())
+                    priceStats.add(bookable.getCategory(), bookable.getPrice());
+            priceSource = bookables;
+            priceSourceSize = bookables.size();
+        }
+        return priceStats;
+    }
+
+    /**
+     * Updates the price stats when one of the bookables is booked or freed
+     * @param bookable the bookable that changed
+     * @param available true if it was freed, false if it was booked
+     */
+    public synchronized void availabilityChanged(Bookable bookable, boolean available) {
+        // stale stats are rebuilt on the next read anyway
+        if (priceStats == null || priceSource != bookables || priceSourceSize != bookables.size())
+            return;
+        if (available)
+            priceStats.add(bookable.getCategory(), bookable.getPrice());
+        else
+            priceStats.remove(bookable.getCategory(), bookable.getPrice());
+    }
+
+    /**
+     * Gets the lowest price of an available bookable
+     * @return lowest price, Integer.MAX_VALUE if nothing is available
+     */
+    public synchronized double getMinCost() {
+        return getPriceStats().getMin();
+    }
+
+    /**
+     * Gets the lowest price of any bookable, booked or not, for bounds that must hold even
+     * if everything is freed again
+     * @return lowest price, Integer.MAX_VALUE if there are no bookables
+     */
+    public double getMinListedCost() {
         double minPrice = Integer.MAX_VALUE;
         for (Bookable bookable : bookables) {
             if (bookable.price < minPrice) {
@@ -92,23 +144,21 @@ public abstract class TravelObject {
         return minPrice;
     }
 
-    public double getMaxCost() {
-        double maxPrice = 0;
-        for (Bookable bookable : bookables) {
-            if (bookable.price > maxPrice) {
-                maxPrice = bookable.price;
-            }
-        }
-        return maxPrice;
+    /**
+     * Gets the highest price of an available bookable
+     * @return highest price, 0 if nothing is available
+     */
+    public synchronized double getMaxCost() {
+        return getPriceStats().getMax();
     }
 
-    public double getAvgCost() {
-        double avgPrice = 0;
-        for (Bookable bookable : bookables) {
-                avgPrice = avgPrice + bookable.price;
-        }
-
-        return avgPrice/((double)bookables.size());
+    /**
+     * Gets the average price of the available bookables
+     * @return average price, NaN if nothing is available
+     */
+    public synchronized double getAvgCost() {
+        PriceStats stats = getPriceStats();
+        return stats.getSum() / stats.getCount();
     }
 
     public double getRating() {
@@ -121,6 +171,48 @@ public abstract class TravelObject {
 
     public void setFilters(final List<SearchFilter> filters) {
         this.filters = filters;
+        markDirty();
+    }
+
+    /**
+     * Flags the travel object's own fields as changed since the last save, so the whole document is written
+     */
+    public void markDirty() {
+        dirty = true;
+        documentDirty = true;
+    }
+
+    /**
+     * Flags that only some bookables changed, so they can be written on their own
+     */
+    void markBookableDirty() {
+        dirty = true;
+    }
+
+    /**
+     * Checks if the travel object or one of its bookables changed since it was loaded or last saved
+     * @return true if it needs to be written
+     */
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Checks if more than the bookables changed, or the travel object was never saved
+     * @return true if the whole document has to be written
+     */
+    public boolean isDocumentDirty() {
+        return documentDirty;
+    }
+
+    /**
+     * Clears the changed flags of the travel object and its bookables after a save
+     */
+    public void markClean() {
+        dirty = false;
+        documentDirty = false;
+        for (Bookable bookable : bookables)
+            bookable.markClean();
     }
 
     @Override
@@ -0,0 +1,53 @@
+package model.bookables;
+
+import java.time.LocalDate;
+import model.bookables.flight.FlightTrip;
+import model.bookables.hotel.Hotel;
+
+/**
+ * A trip and a hotel in the city it lands in, checking in the night it arrives
+ */
+public class TravelPackage {
+    private final FlightTrip trip;
+    private final Hotel hotel;
+    private final LocalDate checkIn;
+    private final LocalDate lastNight;
+    private final double cost;
+
+    /**
+     * Creates a package
+     * @param trip flights there
+     * @param hotel hotel at the destination
+     * @param checkIn first night, the day the trip lands
+     * @param lastNight last night booked
+     * @param cost flight price plus the hotel's price for every night
+     */
+    public TravelPackage(FlightTrip trip, Hotel hotel, LocalDate checkIn, LocalDate lastNight,
+            double cost) {
+        this.trip = trip;
+        this.hotel = hotel;
+        this.checkIn = checkIn;
+        this.lastNight = lastNight;
+        this.cost = cost;
+    }
+
+    public FlightTrip getTrip() {
+        return trip;
+    }
+
+    public Hotel getHotel() {
+        return hotel;
+    }
+
+    public LocalDate getCheckIn() {
+        return checkIn;
+    }
+
+    public LocalDate getLastNight() {
+        return lastNight;
+    }
+
+    public double getMinCost() {
+        return cost;
+    }
+}
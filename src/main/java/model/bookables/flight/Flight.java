@@ -4,6 +4,7 @@ import com.mongodb.DBObject;
 import model.bookables.Bookable;
 import model.bookables.TravelObject;
 import utils.CollectionUtils;
+import utils.GeoUtils;
 import utils.TimeUtils;
 
 import java.time.Duration;
@@ -90,6 +91,30 @@ public class Flight extends TravelObject {
         return Math.sqrt(a2 + b2);
     }
 
+    /**
+     * Great circle length of the flight, start and stop coordinates are latitude/longitude
+     * @return distance flown in kilometers
+     */
+    public double getDistance() {
+        return GeoUtils.distanceKm(startX, startY, stopX, stopY);
+    }
+
+    public double getStartX() {
+        return startX;
+    }
+
+    public double getStartY() {
+        return startY;
+    }
+
+    public double getStopX() {
+        return stopX;
+    }
+
+    public double getStopY() {
+        return stopY;
+    }
+
     public String getAirportFrom() {
         return airportFrom;
     }
@@ -98,6 +123,26 @@ public class Flight extends TravelObject {
         return airportTo;
     }
 
+    public String getCityFrom() {
+        return cityFrom;
+    }
+
+    public void setCityFrom(String cityFrom) {
+        this.cityFrom = cityFrom;
+    }
+
+    /**
+     * Gets the city the destination airport serves, hotels use the same name for their location
+     * @return city, null if the flight wasn't loaded with one
+     */
+    public String getCityTo() {
+        return cityTo;
+    }
+
+    public void setCityTo(String cityTo) {
+        this.cityTo = cityTo;
+    }
+
     public int getNumSeats() {
         return bookables.size();
     }
@@ -105,8 +150,8 @@ public class Flight extends TravelObject {
     public int getNumAvailableSeats() {
         int num = 0;
 
-        for (Seat seat : getOptions())
-            if (!seat.getIsBooked())
+        for (Bookable bookable : bookables)
+            if (!((Seat) bookable).getIsBooked())
                 num++;
 
         return num;
@@ -0,0 +1,45 @@
+package model.bookables.flight;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Trips for each leg of a round trip or multi-city search, in order
+ */
+public class Itinerary {
+    private final List<FlightTrip> trips;
+
+    public Itinerary(List<FlightTrip> trips) {
+        this.trips = trips;
+    }
+
+    public List<FlightTrip> getTrips() {
+        return trips;
+    }
+
+    public double getMinCost() {
+        double total = 0;
+        for (FlightTrip trip : trips)
+            total += trip.getMinCost();
+        return total;
+    }
+
+    /**
+     * Time spent traveling, stays between legs not included
+     */
+    public Duration getTravelTime() {
+        Duration total = Duration.ZERO;
+        for (FlightTrip trip : trips)
+            total = total.plus(trip.getTravelTime());
+        return total;
+    }
+
+    public LocalDateTime getDepartureTime() {
+        return trips.get(0).getDepartureTime();
+    }
+
+    public LocalDateTime getArrivalTime() {
+        return trips.get(trips.size() - 1).getArrivalTime();
+    }
+}
@@ -1,5 +1,6 @@
 package model.bookables.flight;
 
+import com.mongodb.BasicDBObject;
 import com.mongodb.DBObject;
 import model.bookables.Bookable;
 import model.bookables.TravelObject;
@@ -47,7 +48,12 @@ public class Seat extends Bookable {
      * @return true if it booked, false if already booked
      */
     public void book() {
+        if (isBooked)
+            return;
         isBooked = true;
+        markDirty();
+        if (travelObject != null)
+            travelObject.availabilityChanged(this, false);
     }
 
     /**
@@ -56,7 +62,12 @@ public class Seat extends Bookable {
      * @return false if unable to unbook
      */
     public void unbook() {
+        if (!isBooked)
+            return;
         isBooked = false;
+        markDirty();
+        if (travelObject != null)
+            travelObject.availabilityChanged(this, true);
     }
 
     /**
@@ -68,6 +79,16 @@ public class Seat extends Bookable {
         return this.isBooked;
     }
 
+    @Override
+    public boolean isAvailable() {
+        return !isBooked;
+    }
+
+    @Override
+    public String getCategory() {
+        return whichClass;
+    }
+
     /**
      * Method to get seat class
      * @return the class the seat in is as a string
@@ -78,12 +99,23 @@ public class Seat extends Bookable {
 
     public void setOwner(Passport owner) {
         this.owner = owner;
+        markDirty();
     }
 
     public Passport getOwner() {
         return owner;
     }
 
+    /**
+     * Booking only changes the booked flag and the owner, so only those are set
+     */
+    @Override
+    public DBObject getUpdate(String path) {
+        DBObject seat = BasicDBObject.parse(toString());
+        return new BasicDBObject("$set", new BasicDBObject(path + ".isBooked", seat.get("isBooked"))
+                .append(path + ".owner", seat.get("owner")));
+    }
+
     @Override
     public String toString() {
         return "{" + "\"class\": \"" + whichClass + "\", "
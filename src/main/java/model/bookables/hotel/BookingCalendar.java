@@ -0,0 +1,217 @@
+package model.bookables.hotel;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Set of booked days stored as a bitmap of day offsets from a base epoch day
+ * Checking or changing a stay touches one long for every 64 days instead of hashing each date.
+ * The bitmap grows to cover new bookings up to MAX_WORDS longs, bookings that would need more
+ * (like LocalDate.MIN to LocalDate.MAX) are kept as merged ranges instead.
+ */
+public class BookingCalendar {
+    public static final int MAX_WORDS = 1024;
+    private static final long[] NONE = new long[0];
+
+    private long base;
+    private long[] words = NONE;
+    // first day to last day, inclusive and never touching each other
+    private final TreeMap<Long, Long> ranges = new TreeMap<>();
+
+    public BookingCalendar() {
+    }
+
+    /**
+     * Creates a calendar with days already booked
+     * @param days booked days
+     */
+    public BookingCalendar(Iterable<LocalDate> days) {
+        for (LocalDate day : days)
+            book(day, day);
+    }
+
+    /**
+     * Books every day from one date to another
+     * @param from first day, inclusive
+     * @param to last day, inclusive
+     */
+    public void book(LocalDate from, LocalDate to) {
+        long first = from.toEpochDay();
+        long last = to.toEpochDay();
+        if (first > last)
+            return;
+        if (cover(first, last))
+            setBits(first, last, true);
+        else
+            addRange(first, last);
+    }
+
+    /**
+     * Frees every day from one date to another
+     * @param from first day, inclusive
+     * @param to last day, inclusive
+     */
+    public void unbook(LocalDate from, LocalDate to) {
+        long first = from.toEpochDay();
+        long last = to.toEpochDay();
+        if (first > last)
+            return;
+        if (words.length > 0) {
+            long start = Math.max(first, base);
+            long end = Math.min(last, getBitmapEnd());
+            if (start <= end)
+                setBits(start, end, false);
+        }
+        removeRange(first, last);
+    }
+
+    /**
+     * Checks if any day in a range is booked
+     * @param from first day, inclusive
+     * @param to last day, inclusive
+     * @return true if at least one day is booked
+     */
+    public boolean isBooked(LocalDate from, LocalDate to) {
+        long first = from.toEpochDay();
+        long last = to.toEpochDay();
+        if (first > last)
+            return false;
+
+        if (words.length > 0) {
+            long start = Math.max(first, base);
+            long end = Math.min(last, getBitmapEnd());
+            if (start <= end) {
+                int firstWord = (int) ((start - base) >>> 6);
+                int lastWord = (int) ((end - base) >>> 6);
+                for (int i = firstWord; i <= lastWord; i++)
+                    if ((words[i] & mask(i, firstWord, lastWord, start, end)) != 0)
+                        return true;
+            }
+        }
+
+        Map.Entry<Long, Long> range = ranges.floorEntry(last);
+        return range != null && range.getValue() >= first;
+    }
+
+    public boolean isBooked(LocalDate day) {
+        return isBooked(day, day);
+    }
+
+    public boolean isEmpty() {
+        if (!ranges.isEmpty())
+            return false;
+        for (long word : words)
+            if (word != 0)
+                return false;
+        return true;
+    }
+
+    /**
+     * Lists the booked days, this expands ranges so it is only meant for saving
+     * @return booked days in order
+     */
+    public List<LocalDate> getDays() {
+        TreeMap<Long, Long> all = new TreeMap<>(ranges);
+        for (int i = 0; i < words.length; i++) {
+            long word = words[i];
+            while (word != 0) {
+                long day = base + ((long) i << 6) + Long.numberOfTrailingZeros(word);
+                all.merge(day, day, Math::max);
+                word &= word - 1;
+            }
+        }
+
+        List<LocalDate> out = new ArrayList<>();
+        long next = Long.MIN_VALUE;
+        for (Map.Entry<Long, Long> range : all.entrySet()) {
+            for (long day = Math.max(range.getKey(), next); day <= range.getValue(); day++)
+                out.add(LocalDate.ofEpochDay(day));
+            next = Math.max(next, range.getValue() + 1);
+        }
+        return out;
+    }
+
+    private long getBitmapEnd() {
+        return base + ((long) words.length << 6) - 1;
+    }
+
+    /**
+     * Mask of the bits in word i that fall between start and end
+     */
+    private long mask(int i, int firstWord, int lastWord, long start, long end) {
+        long mask = -1L;
+        if (i == firstWord)
+            mask &= -1L << ((start - base) & 63);
+        if (i == lastWord)
+            mask &= -1L >>> (63 - ((end - base) & 63));
+        return mask;
+    }
+
+    private void setBits(long start, long end, boolean value) {
+        int firstWord = (int) ((start - base) >>> 6);
+        int lastWord = (int) ((end - base) >>> 6);
+        for (int i = firstWord; i <= lastWord; i++) {
+            long mask = mask(i, firstWord, lastWord, start, end);
+            if (value)
+                words[i] |= mask;
+            else
+                words[i] &= ~mask;
+        }
+    }
+
+    /**
+     * Grows the bitmap to cover a range if it can stay within MAX_WORDS
+     * @return true if the range is covered
+     */
+    private boolean cover(long first, long last) {
+        long newBase = Math.floorDiv(first, 64) * 64;
+        long newEnd = Math.floorDiv(last, 64) * 64 + 63;
+        if (words.length > 0) {
+            newBase = Math.min(newBase, base);
+            newEnd = Math.max(newEnd, getBitmapEnd());
+        }
+        long needed = (newEnd - newBase + 1) >>> 6;
+        if (needed <= 0 || needed > MAX_WORDS)
+            return false;
+        if (words.length == needed)
+            return true;
+
+        long[] grown = new long[(int) needed];
+        if (words.length > 0)
+            System.arraycopy(words, 0, grown, (int) ((base - newBase) >>> 6), words.length);
+        words = grown;
+        base = newBase;
+        return true;
+    }
+
+    private void addRange(long first, long last) {
+        Map.Entry<Long, Long> before = ranges.floorEntry(first);
+        if (before != null && before.getValue() >= first - 1) {
+            first = before.getKey();
+            last = Math.max(last, before.getValue());
+        }
+        Map.Entry<Long, Long> after = ranges.floorEntry(last == Long.MAX_VALUE ? last : last + 1);
+        if (after != null && after.getKey() >= first)
+            last = Math.max(last, after.getValue());
+        ranges.subMap(first, true, last, true).clear();
+        ranges.put(first, last);
+    }
+
+    private void removeRange(long first, long last) {
+        Map.Entry<Long, Long> before = ranges.floorEntry(first);
+        if (before != null && before.getValue() >= first) {
+            ranges.put(before.getKey(), first - 1);
+            if (before.getValue() > last)
+                ranges.put(last + 1, before.getValue());
+            if (before.getKey() == first)
+                ranges.remove(first);
+        }
+        Map.Entry<Long, Long> inside = ranges.floorEntry(last);
+        if (inside != null && inside.getKey() >= first && inside.getValue() > last)
+            ranges.put(last + 1, inside.getValue());
+        ranges.subMap(first, true, last, true).clear();
+    }
+}
@@ -14,8 +14,10 @@ import java.util.List;
  * @author rengotap
  */
 public class Hotel extends TravelObject {
-
     protected String location;
+    // edits to the fields hotel indexes are built from, see markSearchFieldsChanged
+    private volatile int searchEdits;
+    private RoomAvailability availability;
 
     /**
      * Creates a new hotel object
@@ -54,6 +56,23 @@ public class Hotel extends TravelObject {
         }
     }
 
+    /**
+     * Flags the location, company or features as edited in place, so indexes built over the
+     * hotel are rebuilt and the hotel is saved
+     */
+    public synchronized void markSearchFieldsChanged() {
+        searchEdits++;
+        markDirty();
+    }
+
+    /**
+     * Counts the edits flagged by markSearchFieldsChanged
+     * @return a number that grows with every edit
+     */
+    public int getSearchEdits() {
+        return searchEdits;
+    }
+
     /**
      * Gets the hotel's features
      * @return List of features
@@ -70,16 +89,64 @@ public class Hotel extends TravelObject {
         return bookables.size();
     }
 
-    public int getNumAvailableRooms(LocalDate from, LocalDate to) {
-        int num = 0;
+    public synchronized int getNumAvailableRooms(LocalDate from, LocalDate to) {
+        RoomAvailability current = getAvailability(from, to);
+        if (current != null)
+            return current.countFree(from, to);
 
-        for (Room room : getOptions())
-            if (!room.isBooked(from, to))
+        int num = 0;
+        for (Bookable bookable : bookables)
+            if (!((Room) bookable).isBooked(from, to))
                 num++;
 
         return num;
     }
 
+    /**
+     * Checks if at least one room is free for a whole stay
+     * @param from first night
+     * @param to last night
+     * @return true if a room is free on every day
+     */
+    public synchronized boolean hasAvailableRoom(LocalDate from, LocalDate to) {
+        RoomAvailability current = getAvailability(from, to);
+        if (current != null)
+            return current.anyFree(from, to);
+
+        for (Bookable bookable : bookables)
+            if (!((Room) bookable).isBooked(from, to))
+                return true;
+        return false;
+    }
+
+    /**
+     * Gets a free room index covering a stay, rebuilt around the stay if rooms were added or
+     * removed since it was made or the stay is outside its window
+     * @return the index, null if the stay is too long for one and each room's calendar has to
+     * be checked
+     */
+    private RoomAvailability getAvailability(LocalDate from, LocalDate to) {
+        if (availability != null && availability.isBuiltFrom(bookables)
+                && availability.covers(from, to))
+            return availability;
+        RoomAvailability rebuilt = RoomAvailability.around(bookables, from, to);
+        if (rebuilt != null)
+            availability = rebuilt;
+        return rebuilt;
+    }
+
+    /**
+     * Called by a room after it is booked or freed so the free room index stays current
+     * @param room room that changed
+     * @param from first day changed
+     * @param to last day changed
+     * @param booked true if the days were booked, false if freed
+     */
+    synchronized void roomChanged(Room room, LocalDate from, LocalDate to, boolean booked) {
+        if (availability != null && availability.isBuiltFrom(bookables))
+            availability.update(room, from, to, booked);
+    }
+
     public List<Room> getOptions() {
         List<Room> rooms = new ArrayList<>();
         for (Bookable bookable : bookables)
@@ -88,8 +155,26 @@ public class Hotel extends TravelObject {
         return rooms;
     }
 
+    /**
+     * Gets the nightly price of the cheapest room free for a whole stay
+     * @param from first day
+     * @param to last day
+     * @return lowest price, Integer.MAX_VALUE if no room is free like getMinCost
+     */
+    public double getMinCost(LocalDate from, LocalDate to) {
+        double minPrice = Integer.MAX_VALUE;
+        if (!hasAvailableRoom(from, to))
+            return minPrice;
+        for (Bookable bookable : bookables)
+            if (bookable.getPrice() < minPrice && !((Room) bookable).isBooked(from, to))
+                minPrice = bookable.getPrice();
+        return minPrice;
+    }
+
     public List<Room> getAvailableOptions(LocalDate from, LocalDate to) {
         List<Room> rooms = new ArrayList<>();
+        if (!from.isAfter(to) && !hasAvailableRoom(from, to))
+            return rooms;
         for (Room room : getOptions())
             if (!room.isBooked(from, to))
                 rooms.add(room);
@@ -1,5 +1,6 @@
 package model.bookables.hotel;
 
+import com.mongodb.BasicDBObject;
 import com.mongodb.DBObject;
 import model.bookables.Bookable;
 import model.bookables.TravelObject;
@@ -15,21 +16,23 @@ import java.util.*;
  */
 public class Room extends Bookable {
     private String info;
-    private Set<LocalDate> bookedDays;
+    private BookingCalendar bookedDays;
     private int sleepingCapacity;
+    private BookingCalendar addedDays = new BookingCalendar(); // booked since the last save
+    private boolean daysRemoved;
 
     public Room(int floor, String roomNum, int sleepingCapacity, Set<LocalDate> bookedDays,
             TravelObject travelObject) {
         super(floor, roomNum, travelObject);
         info = "A Room";
-        this.bookedDays = bookedDays;
+        this.bookedDays = new BookingCalendar(bookedDays);
         this.sleepingCapacity = sleepingCapacity;
     }
 
     public Room(int floor, String roomNum, int sleepingCapacity, TravelObject travelObject) {
         super(floor, roomNum, travelObject);
         info = "A Room";
-        bookedDays = new HashSet<>();
+        bookedDays = new BookingCalendar();
         this.sleepingCapacity = sleepingCapacity;
     }
 
@@ -52,19 +55,15 @@ public class Room extends Bookable {
         TimeUtils timeUtils = TimeUtils.getInstance();
         info = (String) object.get("info");
         this.sleepingCapacity = (int) object.get("sleepingCapacity");
-        bookedDays = new HashSet<>();
+        bookedDays = new BookingCalendar();
         for (String day : (List<String>) object.get("bookedDays")) {
-            bookedDays.add(timeUtils.generateDate(day));
+            LocalDate date = timeUtils.generateDate(day);
+            bookedDays.book(date, date);
         }
     }
 
     public boolean isBooked(LocalDate from, LocalDate to) {
-        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
-            if (bookedDays.contains(date)) {
-                return true;
-            }
-        }
-        return false;
+        return bookedDays.isBooked(from, to);
     }
 
     /**
@@ -74,15 +73,19 @@ public class Room extends Bookable {
      * @param to the to day to be booked
      */
     public void bookRange(LocalDate from, LocalDate to) {
-        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
-            bookedDays.add(date);
-        }
+        bookedDays.book(from, to);
+        addedDays.book(from, to);
+        markDirty();
+        if (travelObject instanceof Hotel)
+            ((Hotel) travelObject).roomChanged(this, from, to, true);
     }
 
     public void unbookRange(LocalDate from, LocalDate to) {
-        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
-            bookedDays.remove(date);
-        }
+        bookedDays.unbook(from, to);
+        daysRemoved = true;
+        markDirty();
+        if (travelObject instanceof Hotel)
+            ((Hotel) travelObject).roomChanged(this, from, to, false);
     }
 
     public Hotel getHotel() {
@@ -110,24 +113,57 @@ public class Room extends Bookable {
     /**
      * Method to get the days the room is booked
      * 
-     * @return List of days the room is booked
+     * @return List of days the room is booked in order
      */
     public List<LocalDate> getBookedDays() {
-        var l = new ArrayList<LocalDate>();
-        l.addAll(bookedDays);
-        return l;
+        return bookedDays.getDays();
+    }
+
+    /**
+     * Rooms are grouped by how many they sleep, a room booked on some days is still inventory
+     * @return room type
+     */
+    @Override
+    public String getCategory() {
+        return "Sleeps " + sleepingCapacity;
     }
 
     public int getSleepingCapacity() {
         return sleepingCapacity;
     }
 
+    /**
+     * Days only booked since the last save are added to the stored set, the whole set is only
+     * written again once a day was freed
+     */
+    @Override
+    public DBObject getUpdate(String path) {
+        TimeUtils timeUtils = TimeUtils.getInstance();
+        if (daysRemoved) {
+            List<String> days = new ArrayList<>();
+            for (LocalDate day : getBookedDays())
+                days.add(timeUtils.toString(day));
+            return new BasicDBObject("$set", new BasicDBObject(path + ".bookedDays", days));
+        }
+        List<String> days = new ArrayList<>();
+        for (LocalDate day : addedDays.getDays())
+            days.add(timeUtils.toString(day));
+        return new BasicDBObject("$addToSet", new BasicDBObject(path + ".bookedDays", new BasicDBObject("$each", days)));
+    }
+
+    @Override
+    public void markClean() {
+        super.markClean();
+        addedDays = new BookingCalendar();
+        daysRemoved = false;
+    }
+
     @Override
     public String toString() {
         TimeUtils timeUtils = TimeUtils.getInstance();
         return "{" + "\"id\": \"" + id + "\", "
                 + "\"info\": \"" + info + "\", "
-                + "\"bookedDays\": " + CollectionUtils.stringArray(bookedDays.stream().map(timeUtils::toString).toArray()) + ", "
+                + "\"bookedDays\": " + CollectionUtils.stringArray(getBookedDays().stream().map(timeUtils::toString).toArray()) + ", "
                 + "\"sleepingCapacity\": " + sleepingCapacity + ", "
                 + "\"row\": " + row + ", "
                 + "\"col\": \"" + col + "\", "
@@ -0,0 +1,185 @@
+package model.bookables.hotel;
+
+import java.time.LocalDate;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import model.bookables.Bookable;
+
+/**
+ * Segment tree over the days of a window, each node holds a bitset of the rooms that are free
+ * on every day it covers
+ * ANDing the O(log days) nodes that make up a stay gives exactly the rooms free for all of it,
+ * unlike a minimum of free counts which can't tell if the same room is free every day. A
+ * booking only rewrites the word holding its room's bit on the path up from each day.
+ * The window only spans the stays being asked about, so a hotel costs a few words per day of it
+ * and not a fixed year or more of days.
+ */
+class RoomAvailability {
+    // fewest days a window spans, so the next stay asked about likely fits the same window
+    static final int MIN_DAYS = 64;
+    // most days a window spans, longer stays check each room's calendar instead
+    static final int MAX_DAYS = 1024;
+    // days before a stay its window starts at, so stays starting a little earlier still fit
+    static final int PAST_DAYS = 7;
+
+    private final long base;
+    private final int days;
+    private final int words;
+    private final long[] tree;
+    private final long[] scratch;
+    private final long[] allRooms;
+    private final Map<Room, Integer> index;
+    private final List<Bookable> source;
+    private final int sourceSize;
+
+    /**
+     * Builds the tree from the rooms' calendars
+     * @param rooms the hotel's rooms, every entry must be a Room
+     * @param first first day of the window
+     * @param days number of days in the window
+     */
+    RoomAvailability(List<Bookable> rooms, LocalDate first, int days) {
+        this.base = first.toEpochDay();
+        this.days = days;
+        this.source = rooms;
+        this.sourceSize = rooms.size();
+        this.words = Math.max(1, (rooms.size() + 63) >>> 6);
+        this.tree = new long[2 * days * words];
+        this.scratch = new long[words];
+        this.allRooms = new long[words];
+        this.index = new IdentityHashMap<>();
+
+        for (int r = 0; r < rooms.size(); r++) {
+            index.put((Room) rooms.get(r), r);
+            allRooms[r >>> 6] |= 1L << r;
+        }
+        for (int day = 0; day < days; day++)
+            System.arraycopy(allRooms, 0, tree, (days + day) * words, words);
+
+        // most rooms have nothing booked in the window, only the others need a look at each day
+        LocalDate last = first.plusDays(days - 1);
+        for (int r = 0; r < rooms.size(); r++) {
+            Room room = (Room) rooms.get(r);
+            if (!room.isBooked(first, last))
+                continue;
+            for (int day = 0; day < days; day++) {
+                LocalDate date = first.plusDays(day);
+                if (room.isBooked(date, date))
+                    tree[(days + day) * words + (r >>> 6)] &= ~(1L << r);
+            }
+        }
+        for (int node = days - 1; node >= 1; node--)
+            for (int w = 0; w < words; w++)
+                tree[node * words + w] = tree[2 * node * words + w]
+                        & tree[(2 * node + 1) * words + w];
+    }
+
+    /**
+     * Checks if the tree still has the same rooms as the list it was built from
+     */
+    boolean isBuiltFrom(List<Bookable> rooms) {
+        return source == rooms && sourceSize == rooms.size();
+    }
+
+    /**
+     * Makes a window for a stay, starting a little before it and spanning at least MIN_DAYS
+     * @param rooms the hotel's rooms, every entry must be a Room
+     * @param from first day of the stay
+     * @param to last day of the stay
+     * @return the window, null if the stay is empty or longer than MAX_DAYS
+     */
+    static RoomAvailability around(List<Bookable> rooms, LocalDate from, LocalDate to) {
+        long span = to.toEpochDay() - from.toEpochDay() + 1 + PAST_DAYS;
+        if (span <= PAST_DAYS || span > MAX_DAYS)
+            return null;
+        return new RoomAvailability(rooms, from.minusDays(PAST_DAYS),
+                (int) Math.max(span, MIN_DAYS));
+    }
+
+    /**
+     * Checks if a stay is inside the window
+     */
+    boolean covers(LocalDate from, LocalDate to) {
+        long first = from.toEpochDay() - base;
+        long last = to.toEpochDay() - base;
+        return first >= 0 && last < days && first <= last;
+    }
+
+    /**
+     * Counts the rooms free on every day of a stay, the stay must be covered
+     */
+    int countFree(LocalDate from, LocalDate to) {
+        intersect(from, to);
+        int count = 0;
+        for (long word : scratch)
+            count += Long.bitCount(word);
+        return count;
+    }
+
+    /**
+     * Checks if any room is free on every day of a stay, the stay must be covered
+     */
+    boolean anyFree(LocalDate from, LocalDate to) {
+        intersect(from, to);
+        for (long word : scratch)
+            if (word != 0)
+                return true;
+        return false;
+    }
+
+    /**
+     * Leaves the rooms free for the whole stay in scratch, walking up from both ends of the
+     * range the way an iterative segment tree does
+     */
+    private void intersect(LocalDate from, LocalDate to) {
+        System.arraycopy(allRooms, 0, scratch, 0, words);
+        int l = (int) (from.toEpochDay() - base) + days;
+        int r = (int) (to.toEpochDay() - base) + days + 1;
+        while (l < r) {
+            if ((l & 1) == 1)
+                and(l++);
+            if ((r & 1) == 1)
+                and(--r);
+            l >>= 1;
+            r >>= 1;
+        }
+    }
+
+    private void and(int node) {
+        for (int w = 0; w < words; w++)
+            scratch[w] &= tree[node * words + w];
+    }
+
+    /**
+     * Marks a room booked or free on the days of a range that fall in the window
+     * @param room room that changed
+     * @param from first day
+     * @param to last day
+     * @param booked true if the days were booked, false if freed
+     */
+    void update(Room room, LocalDate from, LocalDate to, boolean booked) {
+        Integer r = index.get(room);
+        if (r == null)
+            return;
+        long first = Math.max(from.toEpochDay() - base, 0);
+        long last = Math.min(to.toEpochDay() - base, days - 1);
+        if (first > last)
+            return;
+
+        int w = r >>> 6;
+        long bit = 1L << r;
+        int l = (int) first + days;
+        int h = (int) last + days;
+        for (int leaf = l; leaf <= h; leaf++) {
+            if (booked)
+                tree[leaf * words + w] &= ~bit;
+            else
+                tree[leaf * words + w] |= bit;
+        }
+        for (l >>= 1, h >>= 1; l >= 1; l >>= 1, h >>= 1)
+            for (int node = l; node <= h; node++)
+                tree[node * words + w] = tree[2 * node * words + w]
+                        & tree[(2 * node + 1) * words + w];
+    }
+}
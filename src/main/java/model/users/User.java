@@ -27,6 +27,8 @@ public class User {
     private List<Passport> travelers; // passport 0 should always be the user
     private List<Booking> bookingHistory;
     private Person person;
+    private boolean dirty;
+    private String savedPreferences; // preference maps are edited in place, so they are compared on save
 
     /**
      * Creates a new User
@@ -44,6 +46,7 @@ public class User {
         specialReq = new ArrayList<>();
         travelers = new ArrayList<>();
         bookingHistory = new ArrayList<>();
+        dirty = true;
     }
 
     @SuppressWarnings("unchecked")
@@ -78,6 +81,7 @@ public class User {
         catch (Exception e) {
             //
         }
+        this.savedPreferences = preferences.toString();
     }
 
     /**
@@ -98,6 +102,7 @@ public class User {
         travelers = new ArrayList<>();
         specialReq = new ArrayList<>();
         bookingHistory = new ArrayList<>();
+        dirty = true;
     }
 
     public String getId() {
@@ -123,6 +128,7 @@ public class User {
 
     public void setPassword(String password) {
         this.password = password;
+        dirty = true;
     }
 
     /**
@@ -155,6 +161,7 @@ public class User {
      */
     public void addSpecial(String toAdd) {
         specialReq.remove(toAdd);
+        dirty = true;
     }
 
     /**
@@ -163,6 +170,7 @@ public class User {
      */
     public void removeSpecial(String toRemove) {
         specialReq.remove(toRemove);
+        dirty = true;
     }
 
     /**
@@ -171,6 +179,7 @@ public class User {
      */
     public void addTraveler(Passport passport) {
         travelers.add(passport);
+        dirty = true;
     }
 
     /**
@@ -179,6 +188,7 @@ public class User {
      */
     public void removeTraveler(Passport passport) {
         travelers.remove(passport);
+        dirty = true;
     }
 
     /**
@@ -227,6 +237,7 @@ public class User {
      */
     public void setEmail(String email) {
         this.email = email;
+        dirty = true;
     }
 
     /**
@@ -236,6 +247,7 @@ public class User {
      */
     public void addBooking(Booking toAdd) {
         bookingHistory.add(toAdd);
+        dirty = true;
     }
 
     /**
@@ -245,13 +257,28 @@ public class User {
      */
     public void removeBooking(Booking toRemove) {
         bookingHistory.remove(toRemove);
+        dirty = true;
     }
 
     public void removeBooking(int index) {
         bookingHistory.remove(index);
+        dirty = true;
     }
 
 
+    /**
+     * Checks if the profile changed since it was loaded or last saved
+     * @return true if it needs to be written
+     */
+    public boolean isDirty() {
+        return dirty || !preferences.toString().equals(savedPreferences);
+    }
+
+    public void markClean() {
+        dirty = false;
+        savedPreferences = preferences.toString();
+    }
+
     /**
      * Gets a list of the user's previous bookings
      * @return booking history
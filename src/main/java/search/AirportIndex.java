@@ -0,0 +1,140 @@
+package search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * k-d tree of airports for finding the ones near a point
+ * Airports are stored as points on the unit sphere, where straight line distance grows with
+ * great circle distance and a split plane bounds every point on its far side, so there is no
+ * special case for longitude wrapping around
+ */
+public class AirportIndex {
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private final String[] codes;
+    // x, y, z of each airport, reordered so every subtree is a range with its split in the middle
+    private final double[][] points;
+    private final Map<String, double[]> coordinates;
+
+    /**
+     * Builds the tree
+     * @param coordinates latitude and longitude by airport code, like FlightGraph keeps
+     */
+    public AirportIndex(Map<String, double[]> coordinates) {
+        this.coordinates = new HashMap<>(coordinates);
+        int n = coordinates.size();
+        this.codes = new String[n];
+        this.points = new double[n][];
+        int i = 0;
+        for (Map.Entry<String, double[]> airport : coordinates.entrySet()) {
+            codes[i] = airport.getKey();
+            points[i] = toPoint(airport.getValue()[0], airport.getValue()[1]);
+            i++;
+        }
+        build(0, n, 0);
+    }
+
+    private static double[] toPoint(double lat, double lon) {
+        double phi = Math.toRadians(lat);
+        double lambda = Math.toRadians(lon);
+        return new double[] {Math.cos(phi) * Math.cos(lambda), Math.cos(phi) * Math.sin(lambda),
+                Math.sin(phi)};
+    }
+
+    /**
+     * Sorts a range on one axis and recurses on both halves with the next axis
+     */
+    private void build(int from, int to, int axis) {
+        if (to - from <= 1)
+            return;
+        Integer[] order = new Integer[to - from];
+        for (int i = 0; i < order.length; i++)
+            order[i] = from + i;
+        Arrays.sort(order, Comparator.comparingDouble(i -> points[i][axis]));
+        String[] sortedCodes = new String[order.length];
+        double[][] sortedPoints = new double[order.length][];
+        for (int i = 0; i < order.length; i++) {
+            sortedCodes[i] = codes[order[i]];
+            sortedPoints[i] = points[order[i]];
+        }
+        System.arraycopy(sortedCodes, 0, codes, from, order.length);
+        System.arraycopy(sortedPoints, 0, points, from, order.length);
+
+        int mid = (from + to) >>> 1;
+        build(from, mid, (axis + 1) % 3);
+        build(mid + 1, to, (axis + 1) % 3);
+    }
+
+    /**
+     * Finds the airports within a distance of an airport, the airport itself included
+     * @param airport airport code, case insensitive
+     * @param km great circle distance
+     * @return airport codes nearest first, empty if the airport isn't known
+     */
+    public List<String> near(String airport, double km) {
+        double[] at = coordinates.get(FlightGraph.key(airport));
+        if (at == null)
+            return new ArrayList<>();
+        return within(at[0], at[1], km);
+    }
+
+    /**
+     * Finds the airports within a distance of a point
+     * @param lat latitude in degrees
+     * @param lon longitude in degrees
+     * @param km great circle distance
+     * @return airport codes nearest first
+     */
+    public List<String> within(double lat, double lon, double km) {
+        double[] query = toPoint(lat, lon);
+        // chord length of the arc, compared squared to skip square roots
+        double chord = 2 * Math.sin(Math.min(km / EARTH_RADIUS_KM, Math.PI) / 2);
+        List<Integer> found = new ArrayList<>();
+        search(0, codes.length, 0, query, chord * chord, found);
+
+        found.sort(Comparator.comparingDouble((Integer i) -> squaredDistance(points[i], query))
+                .thenComparing(i -> codes[i]));
+        List<String> out = new ArrayList<>();
+        for (int i : found)
+            out.add(codes[i]);
+        return out;
+    }
+
+    private void search(int from, int to, int axis, double[] query, double limit,
+            List<Integer> found) {
+        if (from >= to)
+            return;
+        int mid = (from + to) >>> 1;
+        if (squaredDistance(points[mid], query) <= limit)
+            found.add(mid);
+
+        double offset = query[axis] - points[mid][axis];
+        int next = (axis + 1) % 3;
+        // the near side always, the far side only if the split plane is in reach
+        if (offset <= 0) {
+            search(from, mid, next, query, limit, found);
+            if (offset * offset <= limit)
+                search(mid + 1, to, next, query, limit, found);
+        } else {
+            search(mid + 1, to, next, query, limit, found);
+            if (offset * offset <= limit)
+                search(from, mid, next, query, limit, found);
+        }
+    }
+
+    private static double squaredDistance(double[] a, double[] b) {
+        double dx = a[0] - b[0];
+        double dy = a[1] - b[1];
+        double dz = a[2] - b[2];
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    public int size() {
+        return codes.length;
+    }
+}
@@ -0,0 +1,244 @@
+package search;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Set;
+import java.util.TreeSet;
+import model.bookables.flight.Flight;
+import model.users.SearchPreferences;
+import search.filters.FlightFilter;
+import search.filters.SearchFilter;
+import utils.TimeUtils;
+
+/**
+ * Flight filters parsed once so checking a flight doesn't touch strings
+ * Unset filters are stored as null or a value that every flight passes, and the dates and times
+ * are turned into instants up front. Checking a flight allocates nothing.
+ */
+public class CompiledFlightQuery {
+    private final Set<String> airportsFrom;
+    private final Set<String> airportsTo;
+    private final String company;
+    private final int people;
+    private final double maxPrice;
+    private final LocalDateTime departAfter;
+    private final LocalTime departAfterTime;
+    private final LocalDateTime departBefore;
+    private final LocalDateTime arriveBefore;
+    private final LocalTime arriveBeforeTime;
+    private final int maxLayovers;
+
+    private CompiledFlightQuery(Set<String> airportsFrom, Set<String> airportsTo, String company,
+            int people,
+            double maxPrice, LocalDateTime departAfter, LocalTime departAfterTime,
+            LocalDateTime departBefore, LocalDateTime arriveBefore, LocalTime arriveBeforeTime,
+            int maxLayovers) {
+        this.airportsFrom = airportsFrom;
+        this.airportsTo = airportsTo;
+        this.company = company;
+        this.people = people;
+        this.maxPrice = maxPrice;
+        this.departAfter = departAfter;
+        this.departAfterTime = departAfterTime;
+        this.departBefore = departBefore;
+        this.arriveBefore = arriveBefore;
+        this.arriveBeforeTime = arriveBeforeTime;
+        this.maxLayovers = maxLayovers;
+    }
+
+    /**
+     * Parses the filters of a search
+     * A time without a date limits the time of day on any date, and an airport can be a comma
+     * separated list of airports any of which will do
+     * @param preferences flight filters
+     * @return the compiled query
+     */
+    public static CompiledFlightQuery compile(EnumMap<? extends SearchFilter, String> preferences) {
+        TimeUtils timeUtils = TimeUtils.getInstance();
+
+        String people = get(preferences, FlightFilter.PEOPLE);
+        String price = get(preferences, FlightFilter.PRICE);
+        String layovers = get(preferences, FlightFilter.LAYOVERS);
+
+        String dateDepart = get(preferences, FlightFilter.DATE_DEPART_EARLIEST);
+        String timeDepart = get(preferences, FlightFilter.TIME_DEPART_EARLIEST);
+        LocalTime departTime = timeDepart == null ? null : timeUtils.generateTime(timeDepart);
+        LocalDateTime departAfter = null;
+        if (dateDepart != null) {
+            LocalDate date = timeUtils.generateDate(dateDepart);
+            departAfter = LocalDateTime.of(date,
+                    departTime == null ? LocalTime.ofSecondOfDay(0) : departTime);
+            departTime = null;
+        }
+
+        String dateArrive = get(preferences, FlightFilter.DATE_ARRIVE_LATEST);
+        String timeArrive = get(preferences, FlightFilter.TIME_ARRIVE_LATEST);
+        LocalTime arriveTime = timeArrive == null ? null : timeUtils.generateTime(timeArrive);
+        LocalDateTime arriveBefore = null;
+        if (dateArrive != null) {
+            LocalDate date = timeUtils.generateDate(dateArrive);
+            arriveBefore = LocalDateTime.of(date,
+                    arriveTime == null ? LocalTime.ofSecondOfDay(86399) : arriveTime);
+            arriveTime = null;
+        }
+
+        return new CompiledFlightQuery(
+                toAirports(get(preferences, FlightFilter.AIRPORT_FROM)),
+                toAirports(get(preferences, FlightFilter.AIRPORT_TO)),
+                get(preferences, FlightFilter.COMPANY),
+                people == null ? 0 : Integer.parseInt(people),
+                price == null ? Double.POSITIVE_INFINITY : Double.parseDouble(price),
+                departAfter, departTime, null, arriveBefore, arriveTime,
+                layovers == null ? -1 : Integer.parseInt(layovers));
+    }
+
+    /**
+     * Gets a filter's value
+     * @return the trimmed value, null if it is unset
+     */
+    private static String get(EnumMap<? extends SearchFilter, String> preferences,
+            FlightFilter filter) {
+        String value = preferences.get(filter);
+        if (value == null)
+            return null;
+        value = value.trim();
+        if (value.isEmpty() || value.equalsIgnoreCase(SearchPreferences.EMPTY)
+                || value.equalsIgnoreCase(SearchPreferences.ANY))
+            return null;
+        return value;
+    }
+
+    /**
+     * Splits a list of airports into a set that ignores case, so checking a flight's airport
+     * still doesn't allocate
+     * @return the airports, null if any airport will do
+     */
+    private static Set<String> toAirports(String value) {
+        if (value == null)
+            return null;
+        Set<String> airports = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        for (String airport : value.split(","))
+            if (!airport.isBlank())
+                airports.add(airport.trim());
+        return airports.isEmpty() ? null : Collections.unmodifiableSet(airports);
+    }
+
+    /**
+     * The filters each flight after the first must pass
+     * The airports and departure time change with each leg so routing checks those itself
+     */
+    public CompiledFlightQuery forLegs() {
+        return new CompiledFlightQuery(null, null, company, people, maxPrice, null, null, null,
+                arriveBefore, arriveBeforeTime, maxLayovers);
+    }
+
+    /**
+     * The filters the first flight of a route must pass, it can land anywhere
+     */
+    public CompiledFlightQuery forStarts() {
+        return new CompiledFlightQuery(airportsFrom, null, company, people, maxPrice, departAfter,
+                departAfterTime, departBefore, arriveBefore, arriveBeforeTime, maxLayovers);
+    }
+
+    /**
+     * Limits when the first flight may leave, there is no filter for a latest departure so
+     * this is only set from code
+     * @param after earliest departure, replaces the departure date and time filters
+     * @param before departures must be before this
+     * @return a copy with the window
+     */
+    public CompiledFlightQuery withDepartureWindow(LocalDateTime after, LocalDateTime before) {
+        return new CompiledFlightQuery(airportsFrom, airportsTo, company, people, maxPrice, after,
+                null, before, arriveBefore, arriveBeforeTime, maxLayovers);
+    }
+
+    /**
+     * Makes every flight land by a time, keeping an earlier limit if there already is one
+     * @param before latest arrival
+     * @return a copy with the limit
+     */
+    public CompiledFlightQuery withArrivalBefore(LocalDateTime before) {
+        LocalDateTime limit = arriveBefore != null && arriveBefore.isBefore(before) ? arriveBefore
+                : before;
+        return new CompiledFlightQuery(airportsFrom, airportsTo, company, people, maxPrice,
+                departAfter, departAfterTime, departBefore, limit, arriveBeforeTime, maxLayovers);
+    }
+
+    /**
+     * Checks a flight against every set filter
+     * @param flight flight to check
+     * @return true if the flight passes
+     */
+    public boolean matches(Flight flight) {
+        if (airportsFrom != null && !airportsFrom.contains(flight.getAirportFrom()))
+            return false;
+        if (airportsTo != null && !airportsTo.contains(flight.getAirportTo()))
+            return false;
+        if (company != null && !company.equalsIgnoreCase(flight.getCompany()))
+            return false;
+        if (departAfter != null && departAfter.isAfter(flight.getDepartureTime()))
+            return false;
+        if (departAfterTime != null
+                && departAfterTime.isAfter(flight.getDepartureTime().toLocalTime()))
+            return false;
+        if (departBefore != null && !departBefore.isAfter(flight.getDepartureTime()))
+            return false;
+        if (arriveBefore != null && arriveBefore.isBefore(flight.getArrivalTime()))
+            return false;
+        if (arriveBeforeTime != null
+                && arriveBeforeTime.isBefore(flight.getArrivalTime().toLocalTime()))
+            return false;
+        if (maxPrice != Double.POSITIVE_INFINITY && flight.getMinCost() > maxPrice)
+            return false;
+        if (people > 0 && flight.getNumAvailableSeats() < people)
+            return false;
+        return true;
+    }
+
+    /**
+     * @return departure airports, case insensitive, null if any
+     */
+    public Set<String> getAirportsFrom() {
+        return airportsFrom;
+    }
+
+    /**
+     * @return destination airports, case insensitive, null if any
+     */
+    public Set<String> getAirportsTo() {
+        return airportsTo;
+    }
+
+    /**
+     * Checks if an airport is one of the destinations
+     * @param airport airport code
+     * @return true if it is, false if it isn't or there is no destination
+     */
+    public boolean isDestination(String airport) {
+        return airportsTo != null && airport != null && airportsTo.contains(airport);
+    }
+
+    /**
+     * @return earliest allowed departure, null if no departure date is set
+     */
+    public LocalDateTime getDepartAfter() {
+        return departAfter;
+    }
+
+    /**
+     * @return latest allowed arrival, null if no arrival date is set
+     */
+    public LocalDateTime getArriveBefore() {
+        return arriveBefore;
+    }
+
+    /**
+     * @return most layovers allowed, -1 if unlimited
+     */
+    public int getMaxLayovers() {
+        return maxLayovers;
+    }
+}
@@ -0,0 +1,175 @@
+package search;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import model.bookables.flight.Flight;
+import model.bookables.flight.FlightTrip;
+import search.filters.FlightFilter;
+
+/**
+ * Earliest arrival search using the Connection Scan Algorithm
+ * The connection table is walked once in departure order. A flight can be taken if it leaves
+ * the origin or leaves an airport after the traveler has already arrived there, so no priority
+ * queue is needed. When layovers are limited, arrivals are kept separately for each number of
+ * flights taken.
+ */
+public class ConnectionScan {
+    private static final long UNREACHED = Long.MAX_VALUE;
+
+    private final ConnectionTable table;
+    private final CompiledFlightQuery legQuery;
+    private final CompiledFlightQuery startQuery;
+    private final SearchStats stats;
+    // null for any origin
+    private final boolean[] origins;
+    private final boolean[] targets;
+    private final long departAfter;
+    private final int levels;
+    private final boolean chained;
+
+    /**
+     * Creates a scan for one query
+     * @param table connections to scan
+     * @param preferences flight filters, AIRPORT_TO is the destination
+     * @param stats counters to record scanned connections in
+     */
+    public ConnectionScan(ConnectionTable table, EnumMap<FlightFilter, String> preferences,
+            SearchStats stats) {
+        this.table = table;
+        this.stats = stats;
+
+        CompiledFlightQuery query = CompiledFlightQuery.compile(preferences);
+        this.origins = table.getStops(query.getAirportsFrom());
+        this.targets = table.getStops(query.getAirportsTo());
+
+        LocalDateTime after = query.getDepartAfter();
+        this.departAfter = after == null ? Long.MIN_VALUE : ConnectionTable.toSeconds(after);
+
+        // without a layover limit one level is enough and flights chain within it
+        this.chained = query.getMaxLayovers() < 0;
+        this.levels = chained ? 1 : query.getMaxLayovers() + 1;
+
+        this.legQuery = query.forLegs();
+        this.startQuery = query.forStarts();
+    }
+
+    /**
+     * Finds the earliest arriving route that is not one of the excluded trips
+     * Every connection reaching a destination is checked against the excluded trips as it is
+     * scanned, so the scan only stops at the best arrival of a route that can be returned.
+     * Excluded routes can still hide alternatives that differ from them before the last flight
+     * on the same number of flights, those are found with a different number of flights
+     * @param excludingTrips trips that should not be returned again
+     * @return the flights of the route in order, empty if there is none
+     */
+    public List<Flight> find(List<FlightTrip> excludingTrips) {
+        if (!anyMarked(targets) || (origins != null && !anyMarked(origins)) || levels <= 0)
+            return new ArrayList<Flight>();
+
+        Set<List<Flight>> excluded = new HashSet<>();
+        for (FlightTrip trip : excludingTrips)
+            excluded.add(trip.getFlights());
+
+        int stopCount = table.getStopCount();
+        long[][] earliest = new long[levels][stopCount];
+        int[][] inConnection = new int[levels][stopCount];
+        int[][] previous = new int[levels][table.size()];
+        for (int level = 0; level < levels; level++) {
+            Arrays.fill(earliest[level], UNREACHED);
+            Arrays.fill(inConnection[level], -1);
+        }
+
+        // best arrival over routes that are not excluded
+        long bestAtTarget = UNREACHED;
+        int bestLevel = levels;
+        List<Flight> best = new ArrayList<Flight>();
+        for (int c = table.firstDepartingAfter(departAfter); c < table.size(); c++) {
+            long departure = table.getDeparture(c);
+            // nothing departing after the best arrival can improve it
+            if (departure >= bestAtTarget)
+                break;
+            stats.expanded();
+
+            int from = table.getFrom(c);
+            int to = table.getTo(c);
+            long arrival = table.getArrival(c);
+            boolean isStart = (origins == null || origins[from])
+                    && startQuery.matches(table.getFlight(c));
+            boolean checked = false;
+
+            for (int level = 0; level < levels; level++) {
+                int prev;
+                if (level == 0 && isStart) {
+                    prev = -1;
+                } else {
+                    int prevLevel = chained ? level : level - 1;
+                    if (prevLevel < 0 || earliest[prevLevel][from] > departure)
+                        continue;
+                    prev = inConnection[prevLevel][from];
+                }
+                // a route ending here counts even if an excluded one got here first,
+                // fewest flights wins ties
+                boolean candidate = targets[to] && (arrival < bestAtTarget
+                        || (arrival == bestAtTarget && level < bestLevel));
+                boolean improves = arrival < earliest[level][to];
+                if (!candidate && !improves)
+                    continue;
+
+                if (!checked) {
+                    if (!legQuery.matches(table.getFlight(c)))
+                        break;
+                    checked = true;
+                }
+                if (candidate) {
+                    int prevLevel = chained ? level : level - 1;
+                    List<Flight> path = prev < 0 ? new ArrayList<Flight>()
+                            : toPath(previous, prevLevel, prev);
+                    path.add(table.getFlight(c));
+                    if (!excluded.contains(path)) {
+                        best = path;
+                        bestAtTarget = arrival;
+                        bestLevel = level;
+                    }
+                }
+                if (improves) {
+                    earliest[level][to] = arrival;
+                    inConnection[level][to] = c;
+                    previous[level][c] = prev;
+                    stats.queued();
+                }
+            }
+        }
+        return best;
+    }
+
+    private static boolean anyMarked(boolean[] stops) {
+        if (stops == null)
+            return false;
+        for (boolean marked : stops)
+            if (marked)
+                return true;
+        return false;
+    }
+
+    /**
+     * Walks the journey pointers back from the last connection
+     * Every pointer leads to a connection scanned before the current one, so this ends
+     */
+    private List<Flight> toPath(int[][] previous, int level, int last) {
+        List<Flight> path = new ArrayList<Flight>();
+        int c = last;
+        while (c >= 0) {
+            path.add(0, table.getFlight(c));
+            int prev = previous[level][c];
+            if (!chained)
+                level--;
+            c = prev;
+        }
+        return path;
+    }
+}
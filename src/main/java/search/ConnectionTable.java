@@ -0,0 +1,139 @@
+package search;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import model.bookables.flight.Flight;
+
+/**
+ * Every flight as one array sorted by departure time
+ * Airports are numbered and times are stored as epoch seconds in parallel primitive arrays so a
+ * connection scan reads memory in order and never hashes a flight
+ */
+public class ConnectionTable {
+    private final Flight[] flights;
+    private final int[] from;
+    private final int[] to;
+    private final long[] departure;
+    private final long[] arrival;
+    private final Map<String, Integer> stops;
+
+    /**
+     * Builds the table over the given flights
+     * @param source flights to include, null entries and flights without airports are skipped
+     */
+    public ConnectionTable(List<Flight> source) {
+        List<Flight> sorted = new ArrayList<>();
+        for (Flight flight : source)
+            if (flight != null && flight.getAirportFrom() != null && flight.getAirportTo() != null)
+                sorted.add(flight);
+        sorted.sort(Comparator.comparing(Flight::getDepartureTime)
+                .thenComparing(Flight::getArrivalTime));
+
+        int n = sorted.size();
+        this.flights = sorted.toArray(new Flight[n]);
+        this.from = new int[n];
+        this.to = new int[n];
+        this.departure = new long[n];
+        this.arrival = new long[n];
+        this.stops = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            Flight flight = flights[i];
+            from[i] = stopIndex(flight.getAirportFrom());
+            to[i] = stopIndex(flight.getAirportTo());
+            departure[i] = toSeconds(flight.getDepartureTime());
+            arrival[i] = toSeconds(flight.getArrivalTime());
+        }
+    }
+
+    private int stopIndex(String airport) {
+        return stops.computeIfAbsent(FlightGraph.key(airport), k -> stops.size());
+    }
+
+    /**
+     * Converts a time to the table's representation
+     * @param time a time
+     * @return seconds since the epoch, treating the time as UTC
+     */
+    public static long toSeconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * Finds the first connection departing at or after a time
+     * @param seconds time from toSeconds
+     * @return index of the connection, size() if there is none
+     */
+    public int firstDepartingAfter(long seconds) {
+        int low = 0;
+        int high = departure.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (departure[mid] < seconds)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * Gets the number an airport is stored under
+     * @param airport airport code, case insensitive
+     * @return stop number, -1 if no flight uses the airport
+     */
+    public int getStop(String airport) {
+        Integer stop = stops.get(FlightGraph.key(airport));
+        return stop == null ? -1 : stop;
+    }
+
+    /**
+     * Marks the stops of a set of airports
+     * @param airports airport codes, null for every airport
+     * @return true at each of their stops, null if airports is null
+     */
+    public boolean[] getStops(Set<String> airports) {
+        if (airports == null)
+            return null;
+        boolean[] marked = new boolean[getStopCount()];
+        for (String airport : airports) {
+            int stop = getStop(airport);
+            if (stop >= 0)
+                marked[stop] = true;
+        }
+        return marked;
+    }
+
+    public int getStopCount() {
+        return stops.size();
+    }
+
+    public int size() {
+        return flights.length;
+    }
+
+    public Flight getFlight(int connection) {
+        return flights[connection];
+    }
+
+    public int getFrom(int connection) {
+        return from[connection];
+    }
+
+    public int getTo(int connection) {
+        return to[connection];
+    }
+
+    public long getDeparture(int connection) {
+        return departure[connection];
+    }
+
+    public long getArrival(int connection) {
+        return arrival[connection];
+    }
+}
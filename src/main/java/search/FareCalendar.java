@@ -0,0 +1,70 @@
+package search;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cheapest fare for each departure date in a window
+ * Stored as one array from the first date, days without a trip hold infinity
+ */
+public class FareCalendar {
+    private final LocalDate firstDate;
+    private final double[] fares;
+
+    /**
+     * @param firstDate date of the first entry
+     * @param fares cheapest fare for each day from firstDate, infinite if there is no trip
+     */
+    public FareCalendar(LocalDate firstDate, double[] fares) {
+        this.firstDate = firstDate;
+        this.fares = fares;
+    }
+
+    public LocalDate getFirstDate() {
+        return firstDate;
+    }
+
+    public LocalDate getLastDate() {
+        return firstDate.plusDays(fares.length - 1);
+    }
+
+    public int getDays() {
+        return fares.length;
+    }
+
+    /**
+     * Gets the cheapest fare leaving on a date
+     * @param date departure date of the first flight
+     * @return the fare, infinite if no trip leaves that day or the date is outside the window
+     */
+    public double getFare(LocalDate date) {
+        long day = date.toEpochDay() - firstDate.toEpochDay();
+        if (day < 0 || day >= fares.length)
+            return Double.POSITIVE_INFINITY;
+        return fares[(int) day];
+    }
+
+    /**
+     * Gets the days that have a trip
+     * @return fares by date in date order
+     */
+    public Map<LocalDate, Double> toMap() {
+        Map<LocalDate, Double> out = new LinkedHashMap<>();
+        for (int day = 0; day < fares.length; day++)
+            if (fares[day] != Double.POSITIVE_INFINITY)
+                out.put(firstDate.plusDays(day), fares[day]);
+        return out;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+        for (Map.Entry<LocalDate, Double> entry : toMap().entrySet())
+            builder.append('"').append(entry.getKey()).append("\": ").append(entry.getValue())
+                    .append(", ");
+        if (builder.length() > 1)
+            builder.setLength(builder.length() - 2);
+        return builder.append('}').toString();
+    }
+}
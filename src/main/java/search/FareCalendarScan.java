@@ -0,0 +1,168 @@
+package search;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.PriorityQueue;
+import model.bookables.flight.Flight;
+import model.users.SearchPreferences;
+import search.filters.FlightFilter;
+
+/**
+ * Cheapest fare for every departure date in a window from one pass over the connection table
+ * Labels carry the day the trip left on, so trips for all days are built in the same scan and
+ * a flight's fare and filters are only looked at once. A label becomes usable at an airport
+ * once the scan reaches its arrival time, until then it waits in that airport's queue.
+ */
+public class FareCalendarScan {
+    private static final long SECONDS_PER_DAY = 86400;
+
+    private final ConnectionTable table;
+    private final CompiledFlightQuery startQuery;
+    private final CompiledFlightQuery legQuery;
+    private final SearchStats stats;
+    private final boolean[] origins;
+    private final boolean[] targets;
+    private final int levels;
+
+    private static class Pending implements Comparable<Pending> {
+        private final long arrival;
+        private final int day;
+        private final int level;
+        private final double fare;
+
+        Pending(long arrival, int day, int level, double fare) {
+            this.arrival = arrival;
+            this.day = day;
+            this.level = level;
+            this.fare = fare;
+        }
+
+        @Override
+        public int compareTo(Pending other) {
+            return Long.compare(arrival, other.arrival);
+        }
+    }
+
+    /**
+     * Creates a scan for one airport pair
+     * @param table connections to scan
+     * @param preferences flight filters, the departure date is replaced by the window and
+     *        LAYOVERS must be set
+     * @param stats counters to record scanned connections in
+     */
+    public FareCalendarScan(ConnectionTable table, EnumMap<FlightFilter, String> preferences,
+            SearchStats stats) {
+        this.table = table;
+        this.stats = stats;
+
+        EnumMap<FlightFilter, String> anyDate = preferences.clone();
+        anyDate.put(FlightFilter.DATE_DEPART_EARLIEST, SearchPreferences.EMPTY);
+        CompiledFlightQuery query = CompiledFlightQuery.compile(anyDate);
+        this.startQuery = query.forStarts();
+        this.legQuery = query.forLegs();
+
+        this.origins = table.getStops(query.getAirportsFrom());
+        this.targets = table.getStops(query.getAirportsTo());
+        this.levels = Math.max(query.getMaxLayovers(), 0) + 1;
+    }
+
+    /**
+     * Finds the cheapest trip leaving on each day of a window
+     * @param first first departure date
+     * @param last last departure date, inclusive
+     * @return fares by departure date
+     */
+    public FareCalendar find(LocalDate first, LocalDate last) {
+        int days = (int) Math.max(0, last.toEpochDay() - first.toEpochDay() + 1);
+        double[] fares = new double[days];
+        Arrays.fill(fares, Double.POSITIVE_INFINITY);
+        if (origins == null || targets == null || days == 0)
+            return new FareCalendar(first, fares);
+
+        // cheapest fare waiting at each airport by day and flights taken, made on first use
+        double[][][] best = new double[table.getStopCount()][][];
+        List<PriorityQueue<Pending>> pending = new ArrayList<>(
+                Collections.nCopies(table.getStopCount(), null));
+
+        long firstDay = first.toEpochDay();
+        for (int c = table.firstDepartingAfter(firstDay * SECONDS_PER_DAY); c < table.size(); c++) {
+            long departure = table.getDeparture(c);
+            int from = table.getFrom(c);
+            arrive(pending.get(from), best, from, departure, days);
+
+            boolean starts = false;
+            long day = Math.floorDiv(departure, SECONDS_PER_DAY) - firstDay;
+            if (origins[from] && day < days)
+                starts = true;
+            if (!starts && best[from] == null)
+                continue;
+
+            stats.expanded();
+            Flight flight = table.getFlight(c);
+            if (!legQuery.matches(flight))
+                continue;
+            double fare = flight.getMinCost();
+            int to = table.getTo(c);
+            long arrival = table.getArrival(c);
+
+            if (starts && startQuery.matches(flight))
+                offer(pending, best, fares, to, arrival, (int) day, 0, fare, days);
+            if (best[from] != null) {
+                for (int d = 0; d < days; d++)
+                    for (int level = 0; level < levels - 1; level++)
+                        if (best[from][d][level] != Double.POSITIVE_INFINITY)
+                            offer(pending, best, fares, to, arrival, d, level + 1,
+                                    best[from][d][level] + fare, days);
+            }
+        }
+        return new FareCalendar(first, fares);
+    }
+
+    /**
+     * Makes every label that has landed at an airport by a time usable there
+     */
+    private void arrive(PriorityQueue<Pending> queue, double[][][] best, int stop, long time,
+            int days) {
+        while (queue != null && !queue.isEmpty() && queue.peek().arrival <= time) {
+            Pending label = queue.poll();
+            double[] atDay = getBest(best, stop, days)[label.day];
+            atDay[label.level] = Math.min(atDay[label.level], label.fare);
+        }
+    }
+
+    private void offer(List<PriorityQueue<Pending>> pending, double[][][] best, double[] fares,
+            int to, long arrival, int day, int level, double fare, int days) {
+        // nothing on the way can get cheaper, so a label costing more than a finished trip
+        // for its day is done
+        if (fare >= fares[day])
+            return;
+        if (targets[to]) {
+            fares[day] = fare;
+            return;
+        }
+        if (origins[to])
+            return;
+        if (best[to] != null) {
+            for (int l = 0; l <= level; l++)
+                if (best[to][day][l] <= fare)
+                    return;
+        }
+        if (pending.get(to) == null)
+            pending.set(to, new PriorityQueue<>());
+        pending.get(to).add(new Pending(arrival, day, level, fare));
+        stats.queued();
+    }
+
+    private double[][] getBest(double[][][] best, int stop, int days) {
+        if (best[stop] == null) {
+            best[stop] = new double[days][levels];
+            for (double[] atDay : best[stop])
+                Arrays.fill(atDay, Double.POSITIVE_INFINITY);
+        }
+        return best[stop];
+    }
+}
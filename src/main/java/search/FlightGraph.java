@@ -0,0 +1,222 @@
+package search;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import model.bookables.flight.Flight;
+
+/**
+ * Departure board index over a list of flights
+ * Flights are keyed by departure airport and each airport's list is kept sorted by departure
+ * time, so connections out of an airport can be found with a binary search instead of a scan
+ * over every flight
+ * Boards are never changed once published, add() replaces a board with a patched copy, so a
+ * search holding a board keeps a consistent snapshot while flights are added
+ */
+public class FlightGraph {
+    private static final Comparator<Flight> BY_DEPARTURE =
+            Comparator.comparing(Flight::getDepartureTime);
+
+    private final List<Flight> source;
+    private final Map<String, List<Flight>> departures;
+    private final Map<String, double[]> coordinates;
+    private volatile double maxKmPerMinute;
+    private volatile double minFarePerKm;
+    private ConnectionTable connections;
+    private AirportIndex airports;
+    private volatile int size;
+
+    /**
+     * Builds the index over the given flights
+     * @param flights flights to index, usually Data.getFlights()
+     */
+    public FlightGraph(List<Flight> flights) {
+        this.source = flights;
+        this.departures = new ConcurrentHashMap<>();
+        this.coordinates = new ConcurrentHashMap<>();
+        this.minFarePerKm = Double.POSITIVE_INFINITY;
+        Map<String, List<Flight>> boards = new HashMap<>();
+        for (Flight flight : flights) {
+            if (flight == null || flight.getAirportFrom() == null)
+                continue;
+            boards.computeIfAbsent(key(flight.getAirportFrom()), k -> new ArrayList<>())
+                    .add(flight);
+            record(flight);
+        }
+        for (Map.Entry<String, List<Flight>> board : boards.entrySet()) {
+            board.getValue().sort(BY_DEPARTURE);
+            departures.put(board.getKey(), Collections.unmodifiableList(board.getValue()));
+        }
+        this.size = flights.size();
+    }
+
+    /**
+     * Normalizes an airport code so lookups match the case insensitive filters
+     * @param airport airport code
+     * @return key used by the index
+     */
+    static String key(String airport) {
+        return airport.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Checks if this index still reflects the given flight list
+     * @param flights list the index should be built from
+     * @return true if it is the same list and no flights were added or removed since
+     */
+    public boolean isBuiltFrom(List<Flight> flights) {
+        return source == flights && size == flights.size();
+    }
+
+    /**
+     * Patches the index with a flight that was just added to the source list
+     * @param flight the new flight
+     */
+    public synchronized void add(Flight flight) {
+        size++;
+        connections = null;
+        if (flight == null || flight.getAirportFrom() == null)
+            return;
+        String airport = key(flight.getAirportFrom());
+        List<Flight> board = new ArrayList<>(departures.getOrDefault(airport, Collections.emptyList()));
+        board.add(upperBound(board, flight.getDepartureTime()), flight);
+        record(flight);
+        departures.put(airport, Collections.unmodifiableList(board));
+    }
+
+    /**
+     * Tracks airport positions and the speed and fare bounds used by search heuristics
+     */
+    private void record(Flight flight) {
+        if (coordinates.putIfAbsent(key(flight.getAirportFrom()),
+                new double[] {flight.getStartX(), flight.getStartY()}) == null)
+            airports = null;
+        if (flight.getAirportTo() != null && coordinates.putIfAbsent(key(flight.getAirportTo()),
+                new double[] {flight.getStopX(), flight.getStopY()}) == null)
+            airports = null;
+
+        double distance = flight.getDistance();
+        if (distance <= 0)
+            return;
+        double minutes = flight.getTravelTime().getSeconds() / 60.0;
+        maxKmPerMinute = Math.max(maxKmPerMinute,
+                minutes <= 0 ? Double.POSITIVE_INFINITY : distance / minutes);
+        // every seat counts, the bound has to hold if booked seats are freed again
+        minFarePerKm = Math.min(minFarePerKm, flight.getMinListedCost() / distance);
+    }
+
+    /**
+     * Gets every flight leaving an airport
+     * @param airport airport code, case insensitive
+     * @return flights sorted by departure time, a snapshot that later adds don't change
+     */
+    public List<Flight> getDepartures(String airport) {
+        return departures.getOrDefault(key(airport), Collections.emptyList());
+    }
+
+    /**
+     * Gets the flights leaving an airport at or after a time
+     * @param airport airport code, case insensitive
+     * @param earliest earliest allowed departure
+     * @return flights sorted by departure time, a snapshot that later adds don't change
+     */
+    public List<Flight> getDeparturesAfter(String airport, LocalDateTime earliest) {
+        List<Flight> board = departures.get(key(airport));
+        if (board == null)
+            return Collections.emptyList();
+        return board.subList(lowerBound(board, earliest), board.size());
+    }
+
+    /**
+     * Gets the airports that have at least one departure
+     * @return airport keys
+     */
+    public Iterable<String> getAirports() {
+        return Collections.unmodifiableSet(departures.keySet());
+    }
+
+    /**
+     * Gets every flight in one array sorted by departure time, built on first use
+     * @return connection table over the source list
+     */
+    public synchronized ConnectionTable getConnections() {
+        if (connections == null)
+            connections = new ConnectionTable(source);
+        return connections;
+    }
+
+    /**
+     * Gets a spatial index of every airport a flight touches, built on first use
+     * @return airport index over getCoordinates()
+     */
+    public synchronized AirportIndex getAirportIndex() {
+        if (airports == null)
+            airports = new AirportIndex(coordinates);
+        return airports;
+    }
+
+    /**
+     * Gets the position of an airport as seen on the flights that use it
+     * @param airport airport code, case insensitive
+     * @return latitude and longitude, or null if no flight touches the airport
+     */
+    public double[] getCoordinates(String airport) {
+        return coordinates.get(key(airport));
+    }
+
+    /**
+     * Fastest speed of any indexed flight, flying a distance takes at least distance / speed
+     * @return kilometers per minute, infinite if a flight covers distance in no time
+     */
+    public double getMaxKmPerMinute() {
+        return maxKmPerMinute;
+    }
+
+    /**
+     * Cheapest fare per kilometer of any indexed flight, flying a distance costs at least
+     * distance * rate
+     * @return dollars per kilometer, infinite if no flight covers any distance
+     */
+    public double getMinFarePerKm() {
+        return minFarePerKm;
+    }
+
+    /**
+     * @return number of flights in the source list when the index was last built or patched
+     */
+    public int size() {
+        return size;
+    }
+
+    private static int lowerBound(List<Flight> board, LocalDateTime time) {
+        int low = 0;
+        int high = board.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (board.get(mid).getDepartureTime().isBefore(time))
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+
+    private static int upperBound(List<Flight> board, LocalDateTime time) {
+        int low = 0;
+        int high = board.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (board.get(mid).getDepartureTime().isAfter(time))
+                high = mid;
+            else
+                low = mid + 1;
+        }
+        return low;
+    }
+}
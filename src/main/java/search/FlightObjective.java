@@ -0,0 +1,97 @@
+package search;
+
+import java.time.Duration;
+import java.util.List;
+import model.bookables.flight.Flight;
+
+/**
+ * What a flight search minimizes
+ * Each objective gives the cost of adding a flight to a trip and a lower bound on the cost left
+ * to reach the destination, the bound never overestimates so A* stays optimal
+ */
+public enum FlightObjective {
+    /**
+     * Total kilometers flown
+     */
+    DISTANCE {
+        @Override
+        public double cost(Flight previous, Flight next) {
+            return next.getDistance();
+        }
+
+        @Override
+        public double lowerBound(double kmToDestination, FlightGraph graph) {
+            return kmToDestination;
+        }
+    },
+
+    /**
+     * Minutes from the first departure to the last arrival, layovers included
+     */
+    TRAVEL_TIME {
+        @Override
+        public double cost(Flight previous, Flight next) {
+            if (previous == null)
+                return next.getTravelTime().getSeconds() / 60.0;
+            return Duration.between(previous.getArrivalTime(), next.getArrivalTime()).getSeconds()
+                    / 60.0;
+        }
+
+        @Override
+        public double lowerBound(double kmToDestination, FlightGraph graph) {
+            double speed = graph.getMaxKmPerMinute();
+            if (speed <= 0 || Double.isInfinite(speed))
+                return 0;
+            return kmToDestination / speed;
+        }
+    },
+
+    /**
+     * Sum of the cheapest fare on every flight
+     */
+    FARE {
+        @Override
+        public double cost(Flight previous, Flight next) {
+            return next.getMinCost();
+        }
+
+        @Override
+        public double lowerBound(double kmToDestination, FlightGraph graph) {
+            double rate = graph.getMinFarePerKm();
+            if (Double.isInfinite(rate))
+                return 0;
+            return kmToDestination * rate;
+        }
+    };
+
+    /**
+     * Total cost of a route
+     * @param route flights in order
+     * @return sum of each flight's cost given the one before it
+     */
+    public double cost(List<Flight> route) {
+        double total = 0;
+        Flight previous = null;
+        for (Flight flight : route) {
+            total += cost(previous, flight);
+            previous = flight;
+        }
+        return total;
+    }
+
+    /**
+     * Cost of taking a flight
+     * @param previous flight the traveler is coming off of, null if next is the first flight
+     * @param next flight being taken
+     * @return non negative cost
+     */
+    public abstract double cost(Flight previous, Flight next);
+
+    /**
+     * Admissible estimate of the cost left to reach the destination
+     * @param kmToDestination great circle distance left to the destination
+     * @param graph index the search runs over, used for schedule wide speed and fare bounds
+     * @return a cost no greater than the cheapest way to cover the distance
+     */
+    public abstract double lowerBound(double kmToDestination, FlightGraph graph);
+}
@@ -0,0 +1,103 @@
+package search;
+
+import java.util.ArrayList;
+import java.util.List;
+import database.DatabaseData;
+import model.bookables.flight.Flight;
+import model.bookables.flight.FlightTrip;
+import model.users.SearchPreferences;
+import search.filters.FlightFilter;
+
+/**
+ * Backends SearchFlightTrips can find routes with
+ * The default comes from the flighty.search.engine system property
+ */
+public enum FlightSearchEngine {
+    /**
+     * A* over the departure board ordered by flown distance, see RouteFinder
+     */
+    A_STAR {
+        @Override
+        public List<Flight> findRoute(SearchPreferences preferences,
+                List<FlightTrip> excludingTrips, SearchStats stats) {
+            return SearchFlightTrips.findRoute(preferences, excludingTrips,
+                    FlightObjective.DISTANCE, stats);
+        }
+
+        @Override
+        public List<FlightTrip> findTrips(SearchPreferences preferences, int k,
+                SearchStats stats) {
+            FlightGraph graph = SearchIndexes.getFlightGraph(DatabaseData.getInstance());
+            RouteFinder finder = new RouteFinder(graph, preferences.getFPref(),
+                    FlightObjective.DISTANCE, stats);
+            return new KShortestRoutes(finder, SearchPool.get()).find(k);
+        }
+    },
+
+    /**
+     * Earliest arrival Connection Scan over the sorted connection table, see ConnectionScan
+     */
+    CONNECTION_SCAN {
+        @Override
+        public List<Flight> findRoute(SearchPreferences preferences,
+                List<FlightTrip> excludingTrips, SearchStats stats) {
+            ConnectionTable table =
+                    SearchIndexes.getFlightGraph(DatabaseData.getInstance()).getConnections();
+            return new ConnectionScan(table, preferences.getFPref(), stats).find(excludingTrips);
+        }
+
+        /**
+         * A scan only gives the earliest arrival for each number of flights, so alternatives
+         * come from rescanning with each layover limit up to the requested one
+         */
+        @Override
+        public List<FlightTrip> findTrips(SearchPreferences preferences, int k,
+                SearchStats stats) {
+            List<FlightTrip> out = new ArrayList<FlightTrip>();
+            int maxLayovers = Integer.parseInt(preferences.getFPref().get(FlightFilter.LAYOVERS));
+            SearchPreferences limited = preferences.clone();
+            for (int layovers = 0; layovers <= maxLayovers && out.size() < k; layovers++) {
+                limited.getFPref().put(FlightFilter.LAYOVERS, Integer.toString(layovers));
+                List<Flight> route = findRoute(limited, out, stats);
+                if (!route.isEmpty())
+                    out.add(new FlightTrip(route));
+            }
+            return out;
+        }
+    };
+
+    public static final String PROPERTY = "flighty.search.engine";
+
+    /**
+     * Finds one route for the preferences
+     * @param preferences flight filters, AIRPORT_TO is the destination
+     * @param excludingTrips trips that should not be returned again
+     * @param stats counters to record the search's work in
+     * @return the flights of the route in order, empty if there is none
+     */
+    public abstract List<Flight> findRoute(SearchPreferences preferences,
+            List<FlightTrip> excludingTrips, SearchStats stats);
+
+    /**
+     * Finds up to k distinct routes for the preferences
+     * @param preferences flight filters, LAYOVERS must be set
+     * @param k how many routes to return
+     * @param stats counters to record the search's work in
+     * @return trips best first
+     */
+    public abstract List<FlightTrip> findTrips(SearchPreferences preferences, int k,
+            SearchStats stats);
+
+    /**
+     * Reads the configured engine
+     * @return the engine named by the flighty.search.engine property, A_STAR if unset or unknown
+     */
+    public static FlightSearchEngine fromConfig() {
+        String name = System.getProperty(PROPERTY, A_STAR.name());
+        for (FlightSearchEngine engine : values()) {
+            if (engine.name().equalsIgnoreCase(name))
+                return engine;
+        }
+        return A_STAR;
+    }
+}
@@ -0,0 +1,147 @@
+package search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import model.bookables.hotel.Hotel;
+
+/**
+ * Inverted index over a list of hotels
+ * Each location, company and feature, case folded, maps to the sorted positions of the hotels
+ * that have it, so a query only looks at hotels that match all of its terms
+ */
+public class HotelIndex {
+    private static final int[] NONE = new int[0];
+
+    private final List<Hotel> source;
+    private final Hotel[] built;
+    private final long edits;
+    private final Map<String, int[]> byLocation;
+    private final Map<String, int[]> byCompany;
+    private final Map<String, int[]> byFeature;
+
+    /**
+     * Builds the index over the given hotels
+     * @param hotels hotels to index, usually Data.getHotels()
+     */
+    public HotelIndex(List<Hotel> hotels) {
+        this.source = hotels;
+        this.built = hotels.toArray(new Hotel[0]);
+        Map<String, List<Integer>> locations = new HashMap<>();
+        Map<String, List<Integer>> companies = new HashMap<>();
+        Map<String, List<Integer>> features = new HashMap<>();
+        long edits = 0;
+        for (int i = 0; i < built.length; i++) {
+            Hotel hotel = built[i];
+            if (hotel == null)
+                continue;
+            // read before the fields, so an edit made while building leaves the index stale
+            edits += hotel.getSearchEdits();
+            add(locations, hotel.getLocation(), i);
+            add(companies, hotel.getCompany(), i);
+            if (hotel.getFeatures() != null)
+                for (String feature : hotel.getFeatures())
+                    add(features, feature, i);
+        }
+        this.edits = edits;
+        this.byLocation = toPostings(locations);
+        this.byCompany = toPostings(companies);
+        this.byFeature = toPostings(features);
+    }
+
+    /**
+     * Normalizes a term so lookups match the case insensitive filters
+     * @param term location, company or feature
+     * @return key used by the index
+     */
+    static String key(String term) {
+        return term.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static void add(Map<String, List<Integer>> postings, String term, int hotel) {
+        if (term == null)
+            return;
+        List<Integer> list = postings.computeIfAbsent(key(term), k -> new ArrayList<>());
+        // features can repeat on one hotel
+        if (list.isEmpty() || list.get(list.size() - 1) != hotel)
+            list.add(hotel);
+    }
+
+    private static Map<String, int[]> toPostings(Map<String, List<Integer>> lists) {
+        Map<String, int[]> out = new HashMap<>();
+        for (Map.Entry<String, List<Integer>> entry : lists.entrySet())
+            out.put(entry.getKey(),
+                    entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+        return out;
+    }
+
+    /**
+     * Checks if this index still reflects the given hotel list
+     * Edit counts only grow, so the same hotels with the same total mean none of them had its
+     * location, company or features changed
+     * @param hotels list the index should be built from
+     * @return true if it is the same list holding the same hotels, none of them edited since
+     */
+    public boolean isBuiltFrom(List<Hotel> hotels) {
+        if (source != hotels || built.length != hotels.size())
+            return false;
+        long current = 0;
+        for (int i = 0; i < built.length; i++) {
+            Hotel hotel = hotels.get(i);
+            if (hotel != built[i])
+                return false;
+            if (hotel != null)
+                current += hotel.getSearchEdits();
+        }
+        return current == edits;
+    }
+
+    /**
+     * Finds the hotels matching every given term
+     * @param location location, null for any
+     * @param company company, null for any
+     * @param features features the hotel must all have, empty for any
+     * @return matching hotels in list order
+     */
+    public List<Hotel> find(String location, String company, Collection<String> features) {
+        List<int[]> postings = new ArrayList<>();
+        if (location != null)
+            postings.add(byLocation.getOrDefault(key(location), NONE));
+        if (company != null)
+            postings.add(byCompany.getOrDefault(key(company), NONE));
+        for (String feature : features)
+            postings.add(byFeature.getOrDefault(key(feature), NONE));
+
+        List<Hotel> out = new ArrayList<>();
+        if (postings.isEmpty()) {
+            for (Hotel hotel : built)
+                if (hotel != null)
+                    out.add(hotel);
+            return out;
+        }
+
+        // walk the shortest list and binary search the others
+        postings.sort(Comparator.comparingInt(list -> list.length));
+        int[] shortest = postings.get(0);
+        int[] cursors = new int[postings.size()];
+        candidates:
+        for (int hotel : shortest) {
+            for (int p = 1; p < postings.size(); p++) {
+                int[] list = postings.get(p);
+                int at = Arrays.binarySearch(list, cursors[p], list.length, hotel);
+                if (at < 0) {
+                    cursors[p] = -at - 1;
+                    continue candidates;
+                }
+                cursors[p] = at + 1;
+            }
+            out.add(built[hotel]);
+        }
+        return out;
+    }
+}
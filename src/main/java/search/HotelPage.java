@@ -0,0 +1,74 @@
+package search;
+
+import java.util.List;
+import model.bookables.hotel.Hotel;
+
+/**
+ * One page of ranked hotel results and the cursor to fetch the next one with
+ */
+public class HotelPage {
+    private final List<Hotel> hotels;
+    private final Cursor next;
+
+    /**
+     * Position in a ranking, the next page starts right after the hotel it was taken from
+     * Hotels are ordered by score then id, so the position stays valid if hotels are added or
+     * booked between pages
+     */
+    public static class Cursor {
+        private final HotelSort sort;
+        private final double score;
+        private final String id;
+
+        Cursor(HotelSort sort, double score, String id) {
+            this.sort = sort;
+            this.score = score;
+            this.id = id;
+        }
+
+        /**
+         * Checks if a hotel ranks after this position
+         * @param score hotel's score
+         * @param id hotel's id
+         * @return true if it belongs on a later page
+         */
+        boolean isBefore(double score, String id) {
+            int compare = Double.compare(this.score, score);
+            return compare < 0 || compare == 0 && this.id.compareTo(id) < 0;
+        }
+
+        public HotelSort getSort() {
+            return sort;
+        }
+
+        @Override
+        public String toString() {
+            return "{" + "\"sort\": \"" + sort + "\", "
+                    + "\"score\": " + score + ", "
+                    + "\"id\": \"" + id + "\"}";
+        }
+    }
+
+    HotelPage(List<Hotel> hotels, Cursor next) {
+        this.hotels = hotels;
+        this.next = next;
+    }
+
+    /**
+     * @return hotels on this page, best first
+     */
+    public List<Hotel> getHotels() {
+        return hotels;
+    }
+
+    /**
+     * @return cursor for the next page, null if this is the last one
+     */
+    public Cursor getNext() {
+        return next;
+    }
+
+    public boolean hasNext() {
+        return next != null;
+    }
+}
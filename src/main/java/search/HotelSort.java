@@ -0,0 +1,49 @@
+package search;
+
+import java.time.LocalDate;
+import model.bookables.hotel.Hotel;
+
+/**
+ * What ranked hotel results are ordered by
+ * Each order gives a score where lower ranks first, so one comparator serves all of them
+ */
+public enum HotelSort {
+    /**
+     * Cheapest room free for the stay, or cheapest room if there is no stay
+     */
+    PRICE {
+        @Override
+        public double score(Hotel hotel, LocalDate from, LocalDate to) {
+            return from == null ? hotel.getMinCost() : hotel.getMinCost(from, to);
+        }
+    },
+
+    /**
+     * Highest rating first
+     */
+    RATING {
+        @Override
+        public double score(Hotel hotel, LocalDate from, LocalDate to) {
+            return -hotel.getRating();
+        }
+    },
+
+    /**
+     * Most rooms free for the stay first, or most rooms if there is no stay
+     */
+    FREE_ROOMS {
+        @Override
+        public double score(Hotel hotel, LocalDate from, LocalDate to) {
+            return -(from == null ? hotel.getNumRooms() : hotel.getNumAvailableRooms(from, to));
+        }
+    };
+
+    /**
+     * Scores a hotel
+     * @param hotel hotel to score
+     * @param from first day of the stay, null if there is none
+     * @param to last day of the stay, null if there is none
+     * @return score, lower ranks first
+     */
+    public abstract double score(Hotel hotel, LocalDate from, LocalDate to);
+}
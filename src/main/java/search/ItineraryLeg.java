@@ -0,0 +1,59 @@
+package search;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+/**
+ * One segment of a multi-city search
+ */
+public class ItineraryLeg {
+    private final String airportFrom;
+    private final String airportTo;
+    private final LocalDate earliest;
+    private final LocalDate latest;
+    private final Duration minStay;
+
+    /**
+     * @param airportFrom airport the leg leaves from
+     * @param airportTo airport the leg ends at
+     * @param earliest first date the leg may leave on
+     * @param latest last date the leg may leave on
+     * @param minStay least time between landing from the leg before and leaving on this one
+     */
+    public ItineraryLeg(String airportFrom, String airportTo, LocalDate earliest,
+            LocalDate latest, Duration minStay) {
+        this.airportFrom = airportFrom;
+        this.airportTo = airportTo;
+        this.earliest = earliest;
+        this.latest = latest;
+        this.minStay = minStay;
+    }
+
+    /**
+     * Creates a leg with no required stay before it
+     */
+    public ItineraryLeg(String airportFrom, String airportTo, LocalDate earliest,
+            LocalDate latest) {
+        this(airportFrom, airportTo, earliest, latest, Duration.ZERO);
+    }
+
+    public String getAirportFrom() {
+        return airportFrom;
+    }
+
+    public String getAirportTo() {
+        return airportTo;
+    }
+
+    public LocalDate getEarliest() {
+        return earliest;
+    }
+
+    public LocalDate getLatest() {
+        return latest;
+    }
+
+    public Duration getMinStay() {
+        return minStay;
+    }
+}
@@ -0,0 +1,171 @@
+package search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import model.bookables.flight.Flight;
+import model.bookables.flight.FlightTrip;
+
+/**
+ * Finds the K cheapest distinct routes with Yen's algorithm
+ * Every accepted route is branched at each of its flights by searching for the cheapest way to
+ * finish from there that no accepted route with the same beginning already takes. Branches only
+ * start at or after the point a route split off from its parent (Lawler's change), since earlier
+ * branch points were already searched when the parent was accepted. All branches share one
+ * RouteFinder so the departure board is only filtered once per flight.
+ * The branches of one route don't depend on each other, so with a pool they are searched in
+ * parallel and their results are added in branch order. The first route is split across the
+ * pool by start flight, see RouteFinder.findFirst.
+ * Routes are found one at a time as they are asked for, so one instance walks one query's routes
+ * in order.
+ */
+public class KShortestRoutes {
+    private final RouteFinder finder;
+    private final ForkJoinPool pool;
+    // routes are compared by hash before the full list, so repeats are cheap to reject
+    private final Set<List<Flight>> seen = new HashSet<>();
+    private final List<Candidate> accepted = new ArrayList<>();
+    private final PriorityQueue<Candidate> candidates = new PriorityQueue<>(Comparator
+            .comparingDouble((Candidate c) -> c.route.getCost()).thenComparingLong(c -> c.order));
+    private long order;
+    private boolean exhausted;
+
+    /**
+     * @param finder route finder for the query, its objective decides the cost order
+     */
+    public KShortestRoutes(RouteFinder finder) {
+        this(finder, null);
+    }
+
+    /**
+     * @param finder route finder for the query, its objective decides the cost order
+     * @param pool pool to search branches in, null to search on the calling thread
+     */
+    public KShortestRoutes(RouteFinder finder, ForkJoinPool pool) {
+        this.finder = finder;
+        this.pool = pool;
+    }
+
+    private static class Spur {
+        private final int index;
+        private final List<Flight> root;
+        private final Set<Flight> blockedNext;
+
+        Spur(int index, List<Flight> root, Set<Flight> blockedNext) {
+            this.index = index;
+            this.root = root;
+            this.blockedNext = blockedNext;
+        }
+
+        RouteFinder.Route search(RouteFinder finder) {
+            return finder.findSpur(root, blockedNext, new HashSet<>(root));
+        }
+    }
+
+    private static class Candidate {
+        private final RouteFinder.Route route;
+        private final int deviation;
+        private final long order;
+
+        Candidate(RouteFinder.Route route, int deviation, long order) {
+            this.route = route;
+            this.deviation = deviation;
+            this.order = order;
+        }
+    }
+
+    /**
+     * Finds up to k more routes in cost order, following the ones already returned
+     * @param k how many routes to return
+     * @return trips cheapest first, no two with the same flights
+     */
+    public List<FlightTrip> find(int k) {
+        List<FlightTrip> out = new ArrayList<FlightTrip>();
+        while (out.size() < k) {
+            RouteFinder.Route route = next();
+            if (route == null)
+                break;
+            out.add(new FlightTrip(route.getFlights()));
+        }
+        return out;
+    }
+
+    /**
+     * Finds the next cheapest route, so callers that don't know how many they need can stop
+     * as soon as they have enough
+     * @return a route costing at least as much as every one returned before, null if there
+     *         are no more
+     */
+    public RouteFinder.Route next() {
+        if (exhausted)
+            return null;
+        if (accepted.isEmpty()) {
+            RouteFinder.Route first = finder.findFirst(pool);
+            if (first == null) {
+                exhausted = true;
+                return null;
+            }
+            seen.add(first.getFlights());
+            accepted.add(new Candidate(first, 0, order++));
+            return first;
+        }
+
+        Candidate last = accepted.get(accepted.size() - 1);
+        List<Flight> path = last.route.getFlights();
+
+        // spur -1 branches at the origin itself, i.e. picks a different first flight
+        List<Spur> spurs = new ArrayList<>();
+        for (int spur = last.deviation - 1; spur < path.size() - 1; spur++) {
+            List<Flight> root = path.subList(0, spur + 1);
+
+            Set<Flight> blockedNext = new HashSet<>();
+            for (Candidate done : accepted) {
+                List<Flight> flights = done.route.getFlights();
+                if (flights.size() > spur + 1 && flights.subList(0, spur + 1).equals(root))
+                    blockedNext.add(flights.get(spur + 1));
+            }
+            spurs.add(new Spur(spur, root, blockedNext));
+        }
+
+        List<RouteFinder.Route> branches = searchAll(spurs);
+        for (int i = 0; i < spurs.size(); i++) {
+            RouteFinder.Route branch = branches.get(i);
+            if (branch != null && seen.add(branch.getFlights()))
+                candidates.add(new Candidate(branch, spurs.get(i).index + 1, order++));
+        }
+
+        if (candidates.isEmpty()) {
+            exhausted = true;
+            return null;
+        }
+        Candidate next = candidates.poll();
+        accepted.add(next);
+        return next.route;
+    }
+
+    /**
+     * Searches every branch, in the pool if there is one and more than one branch
+     * @return the route found for each branch in the same order, null where there is none
+     */
+    private List<RouteFinder.Route> searchAll(List<Spur> spurs) {
+        if (pool == null || spurs.size() < 2) {
+            List<RouteFinder.Route> out = new ArrayList<>();
+            for (Spur spur : spurs)
+                out.add(spur.search(finder));
+            return out;
+        }
+
+        List<ForkJoinTask<RouteFinder.Route>> tasks = new ArrayList<>();
+        for (Spur spur : spurs)
+            tasks.add(pool.submit(() -> spur.search(finder)));
+        List<RouteFinder.Route> out = new ArrayList<>();
+        for (ForkJoinTask<RouteFinder.Route> task : tasks)
+            out.add(task.join());
+        return out;
+    }
+}
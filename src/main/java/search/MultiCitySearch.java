@@ -0,0 +1,223 @@
+package search;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import model.bookables.flight.FlightTrip;
+import model.bookables.flight.Itinerary;
+import model.users.SearchPreferences;
+import search.filters.FlightFilter;
+
+/**
+ * Round trip and multi-city search
+ * Every leg is searched at the same time for its cheapest few trips, each leg is told to land
+ * early enough for the next leg's window. The options are then combined best first with a bound
+ * on what the remaining legs can still add. A leg is searched for more options whenever the
+ * combination search runs past the ones it has, so an itinerary is not missed because its
+ * trip for a leg is far down that leg's list, e.g. when the cheap outbound trips all land too
+ * late for the return.
+ */
+public class MultiCitySearch {
+    // trips searched for up front on every leg at once
+    public static final int OPTIONS_PER_LEG = 8;
+    // most trips looked at for one leg, bounds the search when few itineraries connect
+    public static final int MAX_OPTIONS_PER_LEG = 512;
+
+    private final FlightGraph graph;
+    private final EnumMap<FlightFilter, String> preferences;
+    private final FlightObjective rank;
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a search
+     * @param graph departure board to search over
+     * @param preferences filters shared by every leg, the airports and dates come from the legs
+     * @param rank what itineraries are ordered by
+     * @param pool pool to search the legs in, null to search them on the calling thread
+     */
+    public MultiCitySearch(FlightGraph graph, EnumMap<FlightFilter, String> preferences,
+            FlightObjective rank, ForkJoinPool pool) {
+        this.graph = graph;
+        this.preferences = preferences;
+        this.rank = rank;
+        this.pool = pool;
+    }
+
+    private static class Option {
+        private final FlightTrip trip;
+        private final double cost;
+
+        Option(FlightTrip trip, double cost) {
+            this.trip = trip;
+            this.cost = cost;
+        }
+    }
+
+    /**
+     * Trips for one leg in cost order, found as the combination search asks for them
+     */
+    private class LegOptions {
+        private final KShortestRoutes routes;
+        private final List<Option> found = new ArrayList<>();
+        private boolean exhausted;
+
+        LegOptions(CompiledFlightQuery query) {
+            this.routes = new KShortestRoutes(new RouteFinder(graph, query, rank, new SearchStats()));
+        }
+
+        /**
+         * @param i position in cost order
+         * @return the i-th cheapest option, null if the leg has no more
+         */
+        Option get(int i) {
+            while (found.size() <= i && !exhausted) {
+                RouteFinder.Route route = found.size() < MAX_OPTIONS_PER_LEG ? routes.next() : null;
+                if (route == null)
+                    exhausted = true;
+                else
+                    found.add(new Option(new FlightTrip(route.getFlights()), route.getCost()));
+            }
+            return i < found.size() ? found.get(i) : null;
+        }
+    }
+
+    private static class Combination {
+        private final Option[] options;
+        private final double cost;
+        private final long order;
+
+        Combination(Option[] options, double cost, long order) {
+            this.options = options;
+            this.cost = cost;
+            this.order = order;
+        }
+    }
+
+    /**
+     * Finds the best itineraries for a list of legs
+     * @param legs legs in travel order
+     * @param k how many itineraries to return
+     * @return itineraries best first
+     */
+    public List<Itinerary> find(List<ItineraryLeg> legs, int k) {
+        List<Itinerary> out = new ArrayList<>();
+        if (legs.isEmpty() || k <= 0)
+            return out;
+
+        List<LegOptions> options = new ArrayList<>();
+        for (int i = 0; i < legs.size(); i++)
+            options.add(new LegOptions(toQuery(legs, i)));
+        if (pool == null) {
+            for (LegOptions leg : options)
+                leg.get(OPTIONS_PER_LEG - 1);
+        } else {
+            List<CompletableFuture<Option>> searches = new ArrayList<>();
+            for (LegOptions leg : options)
+                searches.add(CompletableFuture.supplyAsync(() -> leg.get(OPTIONS_PER_LEG - 1), pool));
+            for (CompletableFuture<Option> search : searches)
+                search.join();
+        }
+        for (LegOptions leg : options)
+            if (leg.get(0) == null)
+                return out;
+
+        for (Combination combination : combine(legs, options, k)) {
+            List<FlightTrip> trips = new ArrayList<>();
+            for (Option option : combination.options)
+                trips.add(option.trip);
+            out.add(new Itinerary(trips));
+        }
+        return out;
+    }
+
+    /**
+     * Builds the query for a leg, it has to leave in its window and land in time for the
+     * next leg's window
+     */
+    private CompiledFlightQuery toQuery(List<ItineraryLeg> legs, int i) {
+        ItineraryLeg leg = legs.get(i);
+        EnumMap<FlightFilter, String> legPreferences = preferences.clone();
+        legPreferences.put(FlightFilter.AIRPORT_FROM, leg.getAirportFrom());
+        legPreferences.put(FlightFilter.AIRPORT_TO, leg.getAirportTo());
+        legPreferences.put(FlightFilter.DATE_DEPART_EARLIEST, SearchPreferences.EMPTY);
+        legPreferences.put(FlightFilter.TIME_DEPART_EARLIEST, SearchPreferences.EMPTY);
+        SearchFlightTrips.expandAirports(legPreferences, graph);
+
+        CompiledFlightQuery query = CompiledFlightQuery.compile(legPreferences)
+                .withDepartureWindow(leg.getEarliest().atStartOfDay(),
+                        leg.getLatest().plusDays(1).atStartOfDay());
+        if (i + 1 < legs.size()) {
+            ItineraryLeg next = legs.get(i + 1);
+            query = query.withArrivalBefore(
+                    next.getLatest().plusDays(1).atStartOfDay().minus(next.getMinStay()));
+        }
+        return query;
+    }
+
+    /**
+     * Finds the k cheapest combinations with a depth first search over the legs, options are
+     * tried cheapest first and a branch stops once even the cheapest options for the legs left
+     * can't beat the k-th combination found so far
+     */
+    private List<Combination> combine(List<ItineraryLeg> legs, List<LegOptions> options, int k) {
+        int n = legs.size();
+        double[] cheapestAfter = new double[n + 1];
+        for (int i = n - 1; i >= 0; i--)
+            cheapestAfter[i] = cheapestAfter[i + 1] + options.get(i).get(0).cost;
+
+        // worst kept combination on top, ties broken by the order they were found
+        PriorityQueue<Combination> best = new PriorityQueue<>(Comparator
+                .comparingDouble((Combination c) -> c.cost).thenComparingLong(c -> c.order)
+                .reversed());
+        combine(legs, options, k, 0, new Option[n], 0, cheapestAfter, best, new long[1],
+                new LocalDateTime[n]);
+
+        List<Combination> out = new ArrayList<>(best);
+        out.sort(Comparator.comparingDouble((Combination c) -> c.cost)
+                .thenComparingLong(c -> c.order));
+        return out;
+    }
+
+    /**
+     * @param deadEnds for each leg the earliest time known to leave no way to finish the
+     *        itinerary when the leg has to leave after it, any later time can't either
+     * @return false if no itinerary can be finished from the chosen options
+     */
+    private boolean combine(List<ItineraryLeg> legs, List<LegOptions> options, int k, int leg,
+            Option[] chosen, double cost, double[] cheapestAfter,
+            PriorityQueue<Combination> best, long[] order, LocalDateTime[] deadEnds) {
+        if (leg == legs.size()) {
+            best.add(new Combination(chosen.clone(), cost, order[0]++));
+            if (best.size() > k)
+                best.poll();
+            return true;
+        }
+
+        LocalDateTime leaveAfter = leg == 0 ? null
+                : chosen[leg - 1].trip.getArrivalTime().plus(legs.get(leg).getMinStay());
+        if (leaveAfter != null && deadEnds[leg] != null && !leaveAfter.isBefore(deadEnds[leg]))
+            return false;
+        boolean finished = false;
+        Option option;
+        for (int i = 0; (option = options.get(leg).get(i)) != null; i++) {
+            double bound = cost + option.cost + cheapestAfter[leg + 1];
+            // options are sorted, so no later one can do better either, the options left may
+            // still connect so this is not a dead end
+            if (best.size() == k && bound >= best.peek().cost)
+                return true;
+            if (leaveAfter != null && option.trip.getDepartureTime().isBefore(leaveAfter))
+                continue;
+            chosen[leg] = option;
+            finished |= combine(legs, options, k, leg + 1, chosen, cost + option.cost,
+                    cheapestAfter, best, order, deadEnds);
+        }
+        if (!finished && leaveAfter != null)
+            deadEnds[leg] = leaveAfter;
+        return finished;
+    }
+}
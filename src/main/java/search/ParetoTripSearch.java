@@ -0,0 +1,167 @@
+package search;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import model.bookables.flight.Flight;
+import model.bookables.flight.FlightTrip;
+import search.filters.FlightFilter;
+
+/**
+ * Round based (RAPTOR style) search for every trip that is not beaten on price, travel time
+ * and transfers at once
+ * Round k only extends the labels made in round k - 1 by one more flight, so transfers never
+ * have to be compared inside a round. Each airport keeps a bag of labels where no label arrives
+ * later, leaves later and costs more than another. Labels that can't end up better than a trip
+ * already at the destination are dropped early.
+ */
+public class ParetoTripSearch {
+    private final FlightGraph graph;
+    private final CompiledFlightQuery query;
+    private final CompiledFlightQuery legQuery;
+    private final SearchStats stats;
+    private final int rounds;
+
+    /**
+     * Creates a search for one query
+     * @param graph departure board to search over
+     * @param preferences flight filters, AIRPORT_TO is the destination
+     * @param stats counters to record the search's work in
+     */
+    public ParetoTripSearch(FlightGraph graph, EnumMap<FlightFilter, String> preferences,
+            SearchStats stats) {
+        this.graph = graph;
+        this.query = CompiledFlightQuery.compile(preferences);
+        this.stats = stats;
+
+        int layovers = query.getMaxLayovers();
+        this.rounds = (layovers < 0 ? SearchFlightTrips.MAX_LAYOVERS : layovers) + 1;
+        this.legQuery = query.forLegs();
+    }
+
+    private static class Label {
+        private final Flight flight;
+        private final Label previous;
+        private final double fare;
+        private final LocalDateTime departure;
+        private final int transfers;
+        private boolean dominated;
+
+        Label(Flight flight, Label previous) {
+            this.flight = flight;
+            this.previous = previous;
+            this.fare = (previous == null ? 0 : previous.fare) + flight.getMinCost();
+            this.departure = previous == null ? flight.getDepartureTime() : previous.departure;
+            this.transfers = previous == null ? 0 : previous.transfers + 1;
+        }
+
+        LocalDateTime getArrival() {
+            return flight.getArrivalTime();
+        }
+
+        Duration getTravelTime() {
+            return Duration.between(departure, getArrival());
+        }
+
+        /**
+         * At an airport on the way, a label is only worse if it arrives no earlier, left no
+         * later, costs no less and has no fewer transfers
+         */
+        boolean isWorseOnTheWay(Label other) {
+            return !getArrival().isBefore(other.getArrival())
+                    && !departure.isAfter(other.departure) && fare >= other.fare
+                    && transfers >= other.transfers;
+        }
+
+        /**
+         * At the destination only the trip's own criteria matter, this also tells if a label
+         * anywhere can still beat a finished trip since fare, time and transfers only grow
+         */
+        boolean isWorseAtDestination(Label other) {
+            return fare >= other.fare && getTravelTime().compareTo(other.getTravelTime()) >= 0
+                    && transfers >= other.transfers;
+        }
+
+        List<Flight> toPath() {
+            List<Flight> path = new ArrayList<Flight>();
+            for (Label label = this; label != null; label = label.previous)
+                path.add(0, label.flight);
+            return path;
+        }
+    }
+
+    /**
+     * Finds the Pareto frontier of trips
+     * @return every non dominated trip, cheapest first
+     */
+    public List<FlightTrip> find() {
+        List<FlightTrip> out = new ArrayList<FlightTrip>();
+        if (query.getAirportsTo() == null || rounds <= 0)
+            return out;
+
+        Map<String, List<Label>> bags = new HashMap<>();
+        List<Label> atDestination = new ArrayList<>();
+
+        List<Label> marked = new ArrayList<>();
+        for (Flight start : SearchFlightTrips.getValidFlights(query.forStarts()))
+            offer(new Label(start, null), bags, atDestination, marked);
+
+        for (int round = 1; round < rounds && !marked.isEmpty(); round++) {
+            List<Label> next = new ArrayList<>();
+            for (Label label : marked) {
+                if (label.dominated || query.isDestination(label.flight.getAirportTo()))
+                    continue;
+                stats.expanded();
+                for (Flight flight : graph.getDeparturesAfter(label.flight.getAirportTo(),
+                        label.getArrival())) {
+                    if (legQuery.matches(flight))
+                        offer(new Label(flight, label), bags, atDestination, next);
+                }
+            }
+            marked = next;
+        }
+
+        atDestination.sort(Comparator.comparingDouble((Label l) -> l.fare)
+                .thenComparing(Label::getTravelTime)
+                .thenComparingInt(l -> l.transfers));
+        for (Label label : atDestination)
+            out.add(new FlightTrip(label.toPath()));
+        return out;
+    }
+
+    private void offer(Label label, Map<String, List<Label>> bags, List<Label> atDestination,
+            List<Label> marked) {
+        for (Label trip : atDestination)
+            if (label.isWorseAtDestination(trip))
+                return;
+
+        if (query.isDestination(label.flight.getAirportTo())) {
+            atDestination.removeIf(trip -> trip.isWorseAtDestination(label));
+            atDestination.add(label);
+            stats.queued();
+            return;
+        }
+
+        List<Label> bag = bags.computeIfAbsent(FlightGraph.key(label.flight.getAirportTo()),
+                k -> new ArrayList<>());
+        for (Label other : bag)
+            if (label.isWorseOnTheWay(other))
+                return;
+        for (Iterator<Label> it = bag.iterator(); it.hasNext();) {
+            Label other = it.next();
+            if (other.isWorseOnTheWay(label)) {
+                other.dominated = true;
+                it.remove();
+            }
+        }
+        bag.add(label);
+        marked.add(label);
+        stats.queued();
+    }
+}
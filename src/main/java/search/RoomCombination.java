@@ -0,0 +1,126 @@
+package search;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import model.bookables.hotel.Hotel;
+import model.bookables.hotel.Room;
+
+/**
+ * Set of rooms in one hotel that together sleep a whole party
+ */
+public class RoomCombination {
+    // slack on the bound for rounding, so a hotel whose total equals the bound is never dropped
+    // because its per bed estimate or its sum came out a little higher
+    private static final double EPSILON = 1e-6;
+
+    private final Hotel hotel;
+    private final List<Room> rooms;
+    private final double cost;
+
+    RoomCombination(Hotel hotel, List<Room> rooms, double cost) {
+        this.hotel = hotel;
+        this.rooms = rooms;
+        this.cost = cost;
+    }
+
+    /**
+     * Finds the cheapest free rooms in a hotel that sleep a party
+     * This is a 0/1 knapsack over the free rooms where the table index is beds covered, capped
+     * at the party size, and the value is the lowest nightly price. States costing more than the
+     * bound are dropped, and the hotel is skipped early if even the cheapest price per bed can't
+     * beat it.
+     * @param hotel hotel to look in
+     * @param from first day of the stay, null to use every room
+     * @param to last day of the stay
+     * @param people party size
+     * @param bound only combinations costing at most this are wanted, ties with it are kept
+     * @return the cheapest combination, null if there is none within the bound
+     */
+    public static RoomCombination cheapest(Hotel hotel, LocalDate from, LocalDate to, int people,
+            double bound) {
+        List<Room> rooms = from == null ? hotel.getOptions() : hotel.getAvailableOptions(from, to);
+        rooms.removeIf(room -> room.getSleepingCapacity() <= 0);
+        double limit = bound + EPSILON;
+        if (people <= 0 || lowerBound(rooms, people) > limit)
+            return null;
+
+        int n = rooms.size();
+        double[] cost = new double[people + 1];
+        boolean[][] took = new boolean[n][people + 1];
+        int[][] came = new int[n][people + 1];
+        Arrays.fill(cost, Double.POSITIVE_INFINITY);
+        cost[0] = 0;
+        for (int i = 0; i < n; i++) {
+            Room room = rooms.get(i);
+            // reads the table from before this room so it is taken at most once
+            double[] before = cost.clone();
+            for (int beds = 0; beds <= people; beds++) {
+                if (before[beds] == Double.POSITIVE_INFINITY)
+                    continue;
+                int covered = Math.min(people, beds + room.getSleepingCapacity());
+                double total = before[beds] + room.getPrice();
+                if (total < cost[covered] && total <= limit) {
+                    cost[covered] = total;
+                    took[i][covered] = true;
+                    came[i][covered] = beds;
+                }
+            }
+        }
+        if (cost[people] == Double.POSITIVE_INFINITY)
+            return null;
+
+        List<Room> chosen = new ArrayList<>();
+        int beds = people;
+        for (int i = n - 1; i >= 0 && beds > 0; i--) {
+            if (took[i][beds]) {
+                chosen.add(rooms.get(i));
+                beds = came[i][beds];
+            }
+        }
+        return new RoomCombination(hotel, chosen, cost[people]);
+    }
+
+    /**
+     * Cheapest the party could possibly sleep if rooms could be split, filling beds from the
+     * lowest price per bed, infinite if there aren't enough beds
+     */
+    private static double lowerBound(List<Room> rooms, int people) {
+        List<Room> byBed = new ArrayList<>(rooms);
+        byBed.sort(Comparator.comparingDouble(room -> room.getPrice() / room.getSleepingCapacity()));
+        double total = 0;
+        int left = people;
+        for (Room room : byBed) {
+            int beds = Math.min(left, room.getSleepingCapacity());
+            total += room.getPrice() / room.getSleepingCapacity() * beds;
+            left -= beds;
+            if (left == 0)
+                return total;
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+
+    public Hotel getHotel() {
+        return hotel;
+    }
+
+    public List<Room> getRooms() {
+        return rooms;
+    }
+
+    /**
+     * @return total nightly price of the rooms
+     */
+    public double getCost() {
+        return cost;
+    }
+
+    public int getSleepingCapacity() {
+        int beds = 0;
+        for (Room room : rooms)
+            beds += room.getSleepingCapacity();
+        return beds;
+    }
+}
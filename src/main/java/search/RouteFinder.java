@@ -0,0 +1,346 @@
+package search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.DoubleAccumulator;
+import model.bookables.flight.Flight;
+import model.bookables.flight.FlightTrip;
+import search.filters.FlightFilter;
+import utils.GeoUtils;
+
+/**
+ * A* search for the cheapest route from any of a set of airports to any of another
+ * Nodes are flights, a flight connects to every later departure from the airport it lands at.
+ * Steps are ordered by cost so far plus the objective's lower bound on the cost left, which is
+ * computed from the great circle distance between where a flight lands and the nearest
+ * destination.
+ * One finder can branch from several threads at once, each search keeps its own queue and only
+ * the looked up connections are shared. The first route can also be split across a pool by start
+ * flight, the groups share the cheapest cost found so far so each stops once it can't beat it.
+ */
+public class RouteFinder {
+    private final FlightGraph graph;
+    private final CompiledFlightQuery query;
+    private final CompiledFlightQuery legQuery;
+    private final FlightObjective objective;
+    private final SearchStats stats;
+    private final Set<String> airportsTo;
+    private final List<double[]> destinations;
+    private final int maxLayovers;
+    private final Map<Flight, List<Flight>> connections;
+    private List<Flight> starts;
+
+    /**
+     * Creates a route finder for one query
+     * @param graph departure board to search over
+     * @param preferences flight filters, AIRPORT_TO is the destination
+     * @param objective what the route should minimize
+     * @param stats counters to record the search's work in
+     */
+    public RouteFinder(FlightGraph graph, EnumMap<FlightFilter, String> preferences,
+            FlightObjective objective, SearchStats stats) {
+        this(graph, CompiledFlightQuery.compile(preferences), objective, stats);
+    }
+
+    /**
+     * Creates a route finder for an already compiled query
+     * @param graph departure board to search over
+     * @param query flight filters, its destination airports are where routes end
+     * @param objective what the route should minimize
+     * @param stats counters to record the search's work in
+     */
+    public RouteFinder(FlightGraph graph, CompiledFlightQuery query, FlightObjective objective,
+            SearchStats stats) {
+        this.graph = graph;
+        this.query = query;
+        this.objective = objective;
+        this.stats = stats;
+        this.airportsTo = query.getAirportsTo();
+        this.destinations = getDestinations(graph, airportsTo);
+
+        // filters every flight on the route must pass, the airports and departure time change
+        // with each leg so those are checked through the departure board instead
+        this.legQuery = query.forLegs();
+        this.maxLayovers = query.getMaxLayovers();
+        this.connections = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Looks up where the destinations are
+     * @return their coordinates, null if any of them is unknown since the heuristic can then
+     *         only assume no distance is left
+     */
+    private static List<double[]> getDestinations(FlightGraph graph, Set<String> airports) {
+        if (airports == null)
+            return null;
+        List<double[]> out = new ArrayList<>();
+        for (String airport : airports) {
+            double[] at = graph.getCoordinates(airport);
+            if (at == null)
+                return null;
+            out.add(at);
+        }
+        return out;
+    }
+
+    private static class Step implements Comparable<Step> {
+        private final Flight flight;
+        private final Step previous;
+        private final double cost;
+        private final double estimate;
+        private final int layovers;
+
+        Step(Flight flight, Step previous, double cost, double estimate, int layovers) {
+            this.flight = flight;
+            this.previous = previous;
+            this.cost = cost;
+            this.estimate = estimate;
+            this.layovers = layovers;
+        }
+
+        List<Flight> toPath() {
+            List<Flight> path = new ArrayList<Flight>();
+            for (Step step = this; step != null; step = step.previous)
+                path.add(0, step.flight);
+            return path;
+        }
+
+        @Override
+        public int compareTo(Step step) {
+            return Double.compare(this.estimate, step.estimate);
+        }
+    }
+
+    /**
+     * A route and what it cost under the finder's objective
+     */
+    public static class Route {
+        private final List<Flight> flights;
+        private final double cost;
+
+        Route(List<Flight> flights, double cost) {
+            this.flights = flights;
+            this.cost = cost;
+        }
+
+        public List<Flight> getFlights() {
+            return flights;
+        }
+
+        public double getCost() {
+            return cost;
+        }
+    }
+
+    /**
+     * Finds the cheapest route that is not one of the excluded trips
+     * @param excludingTrips trips that should not be returned again
+     * @return the flights of the route in order, empty if there is none
+     */
+    public List<Flight> find(List<FlightTrip> excludingTrips) {
+        Set<List<Flight>> excluded = new HashSet<>();
+        for (FlightTrip trip : excludingTrips)
+            excluded.add(trip.getFlights());
+
+        Route route = search(null, getStarts(), Collections.emptySet(), excluded, null);
+        return route == null ? new ArrayList<Flight>() : route.getFlights();
+    }
+
+    /**
+     * Finds the cheapest route from the origin, searching groups of start flights in parallel
+     * Each group finds its cheapest route on its own and stops once its queue can only hold routes
+     * costing more than one another group already found. Of the routes with the lowest cost the
+     * one from the earliest group is returned, so the result doesn't depend on thread timing, but
+     * a tie may resolve to a different route of the same cost than a search on one thread.
+     * @param pool pool to search the groups in, null to search on the calling thread
+     * @return the cheapest route, null if there is none
+     */
+    public Route findFirst(ForkJoinPool pool) {
+        List<Flight> starts = getStarts();
+        int groups = pool == null ? 1 : Math.min(pool.getParallelism(), starts.size());
+        if (groups < 2)
+            return search(null, starts, Collections.emptySet(), Collections.emptySet(), null);
+
+        // dealt out in turn so every group gets a share of the departure times
+        List<List<Flight>> split = new ArrayList<>();
+        for (int i = 0; i < groups; i++)
+            split.add(new ArrayList<>());
+        for (int i = 0; i < starts.size(); i++)
+            split.get(i % groups).add(starts.get(i));
+
+        DoubleAccumulator bound = new DoubleAccumulator(Math::min, Double.POSITIVE_INFINITY);
+        List<ForkJoinTask<Route>> tasks = new ArrayList<>();
+        for (List<Flight> group : split)
+            tasks.add(pool.submit(() -> search(null, group, Collections.emptySet(),
+                    Collections.emptySet(), bound)));
+        Route best = null;
+        for (ForkJoinTask<Route> task : tasks) {
+            Route route = task.join();
+            if (route != null && (best == null || route.getCost() < best.getCost()))
+                best = route;
+        }
+        return best;
+    }
+
+    /**
+     * Finds the cheapest route that begins with the given flights, used to branch off of an
+     * already found route
+     * @param root flights the route has to start with, empty to start at the origin
+     * @param blockedNext flights that may not come right after the root
+     * @param blockedNodes flights that may not be used anywhere after the root
+     * @return the full route including the root, null if there is none
+     */
+    public Route findSpur(List<Flight> root, Set<Flight> blockedNext, Set<Flight> blockedNodes) {
+        Step spur = null;
+        for (Flight flight : root) {
+            double cost = spur == null ? objective.cost(null, flight)
+                    : spur.cost + objective.cost(spur.flight, flight);
+            spur = new Step(flight, spur, cost, cost, spur == null ? 0 : spur.layovers + 1);
+        }
+
+        List<Flight> next = new ArrayList<>();
+        if (spur == null || !query.isDestination(spur.flight.getAirportTo())) {
+            for (Flight flight : spur == null ? getStarts() : getConnections(spur.flight))
+                if (!blockedNext.contains(flight))
+                    next.add(flight);
+        }
+        return search(spur, next, blockedNodes, Collections.emptySet(), null);
+    }
+
+    /**
+     * Flights a route may start with, looked up once per finder
+     */
+    private synchronized List<Flight> getStarts() {
+        if (starts == null) {
+            starts = SearchFlightTrips.getValidFlights(query.forStarts());
+        }
+        return starts;
+    }
+
+    /**
+     * Flights that can follow a flight, kept so branching searches don't filter the departure
+     * board again
+     */
+    private List<Flight> getConnections(Flight flight) {
+        List<Flight> next = connections.get(flight);
+        if (next == null) {
+            next = new ArrayList<>();
+            for (Flight candidate : graph.getDeparturesAfter(flight.getAirportTo(),
+                    flight.getArrivalTime())) {
+                if (legQuery.matches(candidate))
+                    next.add(candidate);
+            }
+            connections.put(flight, next);
+        }
+        return next;
+    }
+
+    /**
+     * @param bound cheapest cost found by searches running alongside this one, null if there
+     *        are none, the search gives up once everything left costs more
+     */
+    private Route search(Step from, List<Flight> firstFlights, Set<Flight> blocked,
+            Set<List<Flight>> excluded, DoubleAccumulator bound) {
+        if (airportsTo == null)
+            return null;
+        if (from != null && maxLayovers >= 0 && from.layovers >= maxLayovers)
+            return null;
+
+        // best cost to reach each flight, split by layovers when they are limited since a
+        // cheaper way in with more layovers can't stand in for a pricier one with fewer
+        Map<Flight, double[]> bestCost = new HashMap<>();
+        PriorityQueue<Step> toExplore = new PriorityQueue<>();
+
+        for (Flight first : firstFlights) {
+            if (blocked.contains(first))
+                continue;
+            if (from == null)
+                offer(toExplore, bestCost, first, null, objective.cost(null, first), 0);
+            else
+                offer(toExplore, bestCost, first, from,
+                        from.cost + objective.cost(from.flight, first), from.layovers + 1);
+        }
+
+        while (!toExplore.isEmpty()) {
+            Step current = toExplore.poll();
+            // the estimate never overstates the cost, so an equal cost can still tie
+            if (bound != null && current.estimate > bound.get())
+                return null;
+            if (isDominated(bestCost.get(current.flight), current.layovers, current.cost, false))
+                continue;
+            stats.expanded();
+
+            if (query.isDestination(current.flight.getAirportTo())) {
+                List<Flight> path = current.toPath();
+                if (excluded.contains(path))
+                    continue;
+                if (bound != null)
+                    bound.accumulate(current.cost);
+                return new Route(path, current.cost);
+            }
+
+            if (maxLayovers >= 0 && current.layovers >= maxLayovers)
+                continue;
+
+            for (Flight next : getConnections(current.flight)) {
+                if (blocked.contains(next))
+                    continue;
+                offer(toExplore, bestCost, next, current,
+                        current.cost + objective.cost(current.flight, next), current.layovers + 1);
+            }
+        }
+
+        return null;
+    }
+
+    private void offer(PriorityQueue<Step> toExplore, Map<Flight, double[]> bestCost,
+            Flight flight, Step previous, double cost, int layovers) {
+        double[] best = bestCost.get(flight);
+        if (best == null) {
+            best = new double[maxLayovers >= 0 ? maxLayovers + 1 : 1];
+            Arrays.fill(best, Double.POSITIVE_INFINITY);
+            bestCost.put(flight, best);
+        } else if (isDominated(best, layovers, cost, true)) {
+            return;
+        }
+        best[bucket(layovers)] = cost;
+
+        double remaining = 0;
+        if (destinations != null) {
+            remaining = Double.POSITIVE_INFINITY;
+            for (double[] destination : destinations)
+                remaining = Math.min(remaining, GeoUtils.distanceKm(flight.getStopX(),
+                        flight.getStopY(), destination[0], destination[1]));
+        }
+        toExplore.add(new Step(flight, previous, cost,
+                cost + objective.lowerBound(remaining, graph), layovers));
+        stats.queued();
+    }
+
+    private int bucket(int layovers) {
+        return maxLayovers >= 0 ? layovers : 0;
+    }
+
+    /**
+     * Checks if a known way to reach a flight is at least as good as this one
+     * @param inclusive true if an equal cost with the same layovers counts as dominating
+     */
+    private boolean isDominated(double[] best, int layovers, double cost, boolean inclusive) {
+        int bucket = bucket(layovers);
+        for (int i = 0; i < bucket; i++)
+            if (best[i] <= cost)
+                return true;
+        return inclusive ? best[bucket] <= cost : best[bucket] < cost;
+    }
+}
@@ -0,0 +1,229 @@
+package search;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import model.users.SearchPreferences;
+import search.filters.SearchFilter;
+
+/**
+ * Bounded cache of search results keyed by the normalized preferences
+ * Entries are evicted least recently used first and expire after a fixed time. Each entry
+ * remembers the list it was searched from and that list's size so adding or replacing data
+ * invalidates it, an optional version such as the index the search read so edits the list size
+ * can't show invalidate it too, and the travel objects it returned so a booking can drop just
+ * the entries showing that flight or hotel.
+ * @param <T> type of result
+ */
+public class SearchCache<T> {
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final Function<T, Collection<String>> ids;
+    private final LinkedHashMap<String, Entry<T>> entries;
+    private final Map<String, Set<String>> keysById;
+    private long hits;
+    private long misses;
+    private long invalidations;
+
+    private static class Entry<T> {
+        private final List<T> results;
+        private final List<?> source;
+        private final int sourceSize;
+        private final Object version;
+        private final long expires;
+        private final Set<String> ids;
+
+        Entry(List<T> results, List<?> source, Object version, long expires, Set<String> ids) {
+            this.results = results;
+            this.source = source;
+            this.sourceSize = source.size();
+            this.version = version;
+            this.expires = expires;
+            this.ids = ids;
+        }
+    }
+
+    /**
+     * Creates a cache
+     * @param maxEntries most results kept, 0 or less disables the cache
+     * @param ttl how long a result is kept
+     * @param ids ids of the travel objects a result shows
+     */
+    public SearchCache(int maxEntries, Duration ttl, Function<T, Collection<String>> ids) {
+        this(maxEntries, ttl, ids, System::nanoTime);
+    }
+
+    SearchCache(int maxEntries, Duration ttl, Function<T, Collection<String>> ids,
+            LongSupplier clock) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.ids = ids;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        this.keysById = new HashMap<>();
+    }
+
+    /**
+     * Builds the key for a set of filters
+     * Values are trimmed and upper cased, 'any' counts as no preference and filters are listed in
+     * enum order, so equivalent searches share a key
+     * @param prefix what kind of search this is and anything else that changes its result
+     * @param preferences search filters
+     * @return the key
+     */
+    public static String key(String prefix, EnumMap<? extends SearchFilter, String> preferences) {
+        StringBuilder builder = new StringBuilder(prefix);
+        for (Map.Entry<? extends SearchFilter, String> pref : preferences.entrySet()) {
+            String value = pref.getValue() == null ? SearchPreferences.EMPTY
+                    : pref.getValue().trim();
+            if (value.isEmpty() || value.equalsIgnoreCase(SearchPreferences.ANY))
+                value = SearchPreferences.EMPTY;
+            builder.append('|').append(pref.getKey()).append('=')
+                    .append(value.toUpperCase(Locale.ROOT));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Gets a cached result or runs the search and caches what it returns
+     * @param key key from key()
+     * @param source list the search reads, the result is dropped once it changes
+     * @param search runs the search
+     * @return a copy of the results
+     */
+    public List<T> get(String key, List<?> source, Supplier<List<T>> search) {
+        return get(key, source, null, search);
+    }
+
+    /**
+     * Gets a cached result or runs the search and caches what it returns
+     * @param key key from key()
+     * @param source list the search reads, the result is dropped once it changes
+     * @param version what the source looked like, the result is dropped once a different
+     *        object is passed
+     * @param search runs the search
+     * @return a copy of the results
+     */
+    public List<T> get(String key, List<?> source, Object version, Supplier<List<T>> search) {
+        if (maxEntries <= 0)
+            return search.get();
+
+        long seen;
+        synchronized (this) {
+            Entry<T> entry = entries.get(key);
+            if (entry != null && isValid(entry, source, version)) {
+                hits++;
+                return new ArrayList<>(entry.results);
+            }
+            if (entry != null)
+                remove(key);
+            misses++;
+            seen = invalidations;
+        }
+
+        List<T> results = search.get();
+        Set<String> shown = new HashSet<>();
+        for (T result : results)
+            shown.addAll(ids.apply(result));
+
+        synchronized (this) {
+            // a booking during the search may have made the results stale already
+            if (seen != invalidations)
+                return results;
+            remove(key);
+            entries.put(key, new Entry<>(new ArrayList<>(results), source, version,
+                    clock.getAsLong() + ttlNanos, shown));
+            for (String id : shown)
+                keysById.computeIfAbsent(id, k -> new HashSet<>()).add(key);
+            evict();
+        }
+        return results;
+    }
+
+    private boolean isValid(Entry<T> entry, List<?> source, Object version) {
+        return entry.source == source && entry.sourceSize == source.size()
+                && entry.version == version
+                && clock.getAsLong() - entry.expires < 0;
+    }
+
+    private void evict() {
+        // get() would reorder an access ordered map, so the entries are read off the iterator
+        Iterator<Map.Entry<String, Entry<T>>> oldest = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && oldest.hasNext()) {
+            Map.Entry<String, Entry<T>> entry = oldest.next();
+            unlink(entry.getKey(), entry.getValue());
+            oldest.remove();
+        }
+    }
+
+    private void remove(String key) {
+        Entry<T> entry = entries.remove(key);
+        if (entry != null)
+            unlink(key, entry);
+    }
+
+    private void unlink(String key, Entry<T> entry) {
+        for (String id : entry.ids) {
+            Set<String> keys = keysById.get(id);
+            if (keys != null) {
+                keys.remove(key);
+                if (keys.isEmpty())
+                    keysById.remove(id);
+            }
+        }
+    }
+
+    /**
+     * Drops every result showing a travel object, used when one of its options is booked
+     * @param id id of the flight or hotel
+     */
+    public synchronized void invalidate(String id) {
+        invalidations++;
+        Set<String> keys = keysById.remove(id);
+        if (keys == null)
+            return;
+        for (String key : new ArrayList<>(keys))
+            remove(key);
+    }
+
+    /**
+     * Drops every result
+     */
+    public synchronized void clear() {
+        invalidations++;
+        entries.clear();
+        keysById.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "{" + "\"size\": " + entries.size() + ", "
+                + "\"hits\": " + hits + ", "
+                + "\"misses\": " + misses + "}";
+    }
+}
@@ -1,25 +1,166 @@
 package search;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.EnumMap;
-import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 import database.DatabaseData;
 import model.bookables.flight.Flight;
 import model.bookables.flight.FlightTrip;
+import model.bookables.flight.Itinerary;
 import model.users.SearchPreferences;
 import search.filters.FlightFilter;
 import search.filters.SearchFilter;
-import utils.TimeUtils;
 
 public class SearchFlightTrips implements Search {
+    public static final int DEFAULT_TRIPS = 4;
+    public static final int MAX_LAYOVERS = 2;
+    // days after the earliest departure a trip can still be flying, used when no arrival date is set
+    public static final int MAX_TRIP_DAYS = 2;
+    // below this many flights splitting the filtering costs more than it saves
+    private static final int PARALLEL_FILTER_THRESHOLD = 4096;
+    public static final int CACHE_SIZE = 256;
+    public static final Duration CACHE_TTL = Duration.ofMinutes(1);
+    private static final SearchCache<FlightTrip> cache = new SearchCache<>(CACHE_SIZE,
+            CACHE_TTL, SearchFlightTrips::getFlightIds);
+    private static FlightSearchEngine engine = FlightSearchEngine.fromConfig();
+
+    /**
+     * Gets the backend routes are found with
+     * @return current engine
+     */
+    public static FlightSearchEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Changes the backend routes are found with
+     * @param newEngine engine to use for following searches
+     */
+    public static void setEngine(FlightSearchEngine newEngine) {
+        engine = newEngine;
+    }
+
+    /**
+     * Gets the cache of trips found by execute, BookingAgent invalidates it
+     * @return the shared cache
+     */
+    public static SearchCache<FlightTrip> getCache() {
+        return cache;
+    }
+
+    private static List<String> getFlightIds(FlightTrip trip) {
+        List<String> ids = new ArrayList<>();
+        for (Flight flight : trip.getFlights())
+            ids.add(flight.getId());
+        return ids;
+    }
 
+    /**
+     * Finds the default number of trips for the preferences
+     * @param preferences search preferences
+     * @return trips in the engine's order, see execute(SearchPreferences, int)
+     */
     public static List<FlightTrip> execute(SearchPreferences preferences) {
+        return execute(preferences, DEFAULT_TRIPS);
+    }
+
+    /**
+     * Finds up to k distinct trips for the preferences in one search
+     * @param preferences search preferences, layovers default to MAX_LAYOVERS if unset
+     * @param k how many trips to return
+     * @return trips in the engine's order: shortest flown distance first with A_STAR, earliest
+     *         arrival with the fewest flights first with CONNECTION_SCAN, not by fare
+     */
+    public static List<FlightTrip> execute(SearchPreferences preferences, int k) {
+        SearchPreferences normalized = normalize(preferences);
+        FlightSearchEngine current = engine;
+        String key = SearchCache.key(current.name() + "|" + k, normalized.fPref);
+        return cache.get(key, DatabaseData.getInstance().getFlights(),
+                () -> current.findTrips(normalized, k, new SearchStats()));
+    }
+
+    /**
+     * Starts walking the trips for the preferences cheapest fare first, for callers that don't
+     * know how many trips they need
+     * @param preferences search preferences, layovers default to MAX_LAYOVERS if unset
+     * @return routes in fare order, each route's cost is its trip's fare
+     */
+    static KShortestRoutes routesByFare(SearchPreferences preferences) {
+        SearchPreferences normalized = normalize(preferences);
+        FlightGraph graph = SearchIndexes.getFlightGraph(DatabaseData.getInstance());
+        return new KShortestRoutes(new RouteFinder(graph, normalized.getFPref(),
+                FlightObjective.FARE, new SearchStats()), SearchPool.get());
+    }
+
+    /**
+     * Finds every trip that is not beaten on price, travel time and number of transfers at
+     * once, in one run instead of one search per layover count
+     * @param preferences search preferences, layovers default to MAX_LAYOVERS if unset
+     * @return the Pareto frontier of trips, cheapest first
+     */
+    public static List<FlightTrip> executePareto(SearchPreferences preferences) {
+        SearchPreferences normalized = normalize(preferences);
+        return cache.get(SearchCache.key("PARETO", normalized.fPref),
+                DatabaseData.getInstance().getFlights(), () -> {
+                    FlightGraph graph = SearchIndexes.getFlightGraph(DatabaseData.getInstance());
+                    return new ParetoTripSearch(graph, normalized.getFPref(), new SearchStats())
+                            .find();
+                });
+    }
+
+    /**
+     * Finds the cheapest fare for each departure date in a window with one scan of the schedule
+     * instead of one search per date
+     * @param preferences search preferences, the departure date is ignored
+     * @param first first departure date
+     * @param last last departure date, inclusive
+     * @return cheapest fare by departure date
+     */
+    public static FareCalendar executeFareCalendar(SearchPreferences preferences,
+            LocalDate first, LocalDate last) {
+        preferences = normalize(preferences);
+        DatabaseData.getInstance().loadFlightDays(first, last.plusDays(MAX_TRIP_DAYS));
+        ConnectionTable table =
+                SearchIndexes.getFlightGraph(DatabaseData.getInstance()).getConnections();
+        return new FareCalendarScan(table, preferences.getFPref(), new SearchStats())
+                .find(first, last);
+    }
+
+    /**
+     * Finds round trip or multi-city itineraries in one search
+     * @param preferences filters every leg shares, airports and dates come from the legs
+     * @param legs legs in travel order
+     * @param rank FARE for cheapest first, TRAVEL_TIME for shortest first
+     * @param k how many itineraries to return
+     * @return itineraries best first
+     */
+    public static List<Itinerary> executeItinerary(SearchPreferences preferences,
+            List<ItineraryLeg> legs, FlightObjective rank, int k) {
+        preferences = normalize(preferences);
+        if (!legs.isEmpty()) {
+            LocalDate first = legs.get(0).getEarliest();
+            LocalDate last = first;
+            for (ItineraryLeg leg : legs) {
+                first = leg.getEarliest().isBefore(first) ? leg.getEarliest() : first;
+                last = leg.getLatest().isAfter(last) ? leg.getLatest() : last;
+            }
+            DatabaseData.getInstance().loadFlightDays(first, last.plusDays(MAX_TRIP_DAYS));
+        }
+        FlightGraph graph = SearchIndexes.getFlightGraph(DatabaseData.getInstance());
+        return new MultiCitySearch(graph, preferences.getFPref(), rank, SearchPool.get()).find(legs, k);
+    }
+
+    /**
+     * Copies the preferences with 'any' turned into no preference and a layover limit set
+     */
+    private static SearchPreferences normalize(SearchPreferences preferences) {
         preferences = preferences.clone();
         for (var pref : preferences.fPref.keySet()) {
             if (preferences.fPref.get(pref).equalsIgnoreCase(SearchPreferences.ANY)) {
@@ -27,183 +168,146 @@ public class SearchFlightTrips implements Search {
             }
         }
 
-        List<FlightTrip> out = new ArrayList<FlightTrip>();
+        // most layovers from Scenario 2
+        if (preferences.fPref.get(FlightFilter.LAYOVERS).equalsIgnoreCase(SearchPreferences.EMPTY))
+            preferences.fPref.put(FlightFilter.LAYOVERS, Integer.toString(MAX_LAYOVERS));
 
-        // layovers from Scenario 2
-        for (String amountLayovers : new String[] {"0", "1", "1", "2"}) {
-            preferences.fPref.put(FlightFilter.LAYOVERS, amountLayovers);
-
-            List<Flight> route = findRoute(preferences, out);
-            if (!route.isEmpty())
-                out.add(new FlightTrip(route));
-        }
+        loadFlightDays(CompiledFlightQuery.compile(preferences.fPref));
+        expandAirports(preferences.fPref, SearchIndexes.getFlightGraph(DatabaseData.getInstance()));
+        return preferences;
+    }
 
-        return out;
+    /**
+     * Loads the departure days between DATE_DEPART_EARLIEST and DATE_ARRIVE_LATEST, for Data that
+     * keeps only some days of flights
+     * Without a departure date the window starts today, without an arrival date it ends
+     * MAX_TRIP_DAYS after the first day
+     * @param query compiled flight filters
+     */
+    static void loadFlightDays(CompiledFlightQuery query) {
+        LocalDate first = query.getDepartAfter() == null ? null : query.getDepartAfter().toLocalDate();
+        LocalDate last = query.getArriveBefore() == null ? null : query.getArriveBefore().toLocalDate();
+        if (first == null)
+            first = last == null ? LocalDate.now() : last.minusDays(MAX_TRIP_DAYS);
+        if (last == null || last.isBefore(first))
+            last = first.plusDays(MAX_TRIP_DAYS);
+        DatabaseData.getInstance().loadFlightDays(first, last);
     }
 
+    /**
+     * Replaces the airports with every airport within AIRPORT_RADIUS kilometers of them, so one
+     * search covers all of them instead of one search per airport
+     * @param preferences flight filters, changed in place
+     * @param graph graph whose airport index is used
+     */
+    static void expandAirports(EnumMap<FlightFilter, String> preferences, FlightGraph graph) {
+        String radius = preferences.get(FlightFilter.AIRPORT_RADIUS);
+        if (radius == null || radius.isBlank() || radius.equalsIgnoreCase(SearchPreferences.EMPTY)
+                || radius.equalsIgnoreCase(SearchPreferences.ANY))
+            return;
+        double km = Double.parseDouble(radius.trim());
+        AirportIndex index = graph.getAirportIndex();
+        for (FlightFilter filter : List.of(FlightFilter.AIRPORT_FROM, FlightFilter.AIRPORT_TO)) {
+            String airports = preferences.get(filter);
+            if (airports == null || airports.isBlank()
+                    || airports.equalsIgnoreCase(SearchPreferences.EMPTY)
+                    || airports.equalsIgnoreCase(SearchPreferences.ANY))
+                continue;
+            Set<String> expanded = new LinkedHashSet<>();
+            for (String airport : airports.split(",")) {
+                if (airport.isBlank())
+                    continue;
+                // an airport no flight touches has no position, it is kept as is
+                expanded.add(FlightGraph.key(airport.trim()));
+                expanded.addAll(index.near(airport.trim(), km));
+            }
+            preferences.put(filter, String.join(",", expanded));
+        }
+    }
 
+    /**
+     * Checks one flight against the filters, parse the filters once with
+     * CompiledFlightQuery when checking many flights
+     * @param flight flight to check
+     * @param preferences flight filters
+     * @return true if the flight passes every set filter
+     */
     public static boolean isValidOption(Flight flight,
             EnumMap<? extends SearchFilter, String> preferences) {
-        String airportFrom = preferences.get(FlightFilter.AIRPORT_FROM);
-        String airportTo = preferences.get(FlightFilter.AIRPORT_TO);
-        String company = preferences.get(FlightFilter.COMPANY);
-
-        if (!airportFrom.equalsIgnoreCase(SearchPreferences.EMPTY)
-                && !airportFrom.equalsIgnoreCase(flight.getAirportFrom()))
-            return false;
-
-        if (!airportTo.equalsIgnoreCase(SearchPreferences.EMPTY)
-                && !airportTo.equalsIgnoreCase(flight.getAirportTo()))
-            return false;
-
-        if (!company.equalsIgnoreCase(SearchPreferences.EMPTY)
-                && !company.equalsIgnoreCase(flight.getCompany()))
-            return false;
-
-        if (!preferences.get(FlightFilter.PEOPLE).equalsIgnoreCase(SearchPreferences.EMPTY)
-                && Integer.parseInt(preferences.get(FlightFilter.PEOPLE)) > flight
-                        .getNumAvailableSeats())
-            return false;
-
-        if (!preferences.get(FlightFilter.DATE_DEPART_EARLIEST)
-                .equalsIgnoreCase(SearchPreferences.EMPTY)) {
-            LocalDate dateDepartAfter = preferences.get(FlightFilter.DATE_DEPART_EARLIEST)
-                    .equalsIgnoreCase(SearchPreferences.EMPTY) ? LocalDate.ofEpochDay(0L)
-                            : TimeUtils.getInstance().generateDate(
-                                    preferences.get(FlightFilter.DATE_DEPART_EARLIEST));
-
-            LocalTime timeDepartAfter = preferences.get(FlightFilter.TIME_DEPART_EARLIEST)
-                    .equalsIgnoreCase(SearchPreferences.EMPTY) ? LocalTime.ofSecondOfDay(0)
-                            : TimeUtils.getInstance()
-                                    .generateTime(
-                                            preferences.get(FlightFilter.TIME_DEPART_EARLIEST));
-
-            LocalDateTime departAfter = LocalDateTime.of(dateDepartAfter, timeDepartAfter);
-            if (departAfter.compareTo(flight.getDepartureTime()) > 0)
-                return false;
-        }
-
-        if (!preferences.get(FlightFilter.DATE_ARRIVE_LATEST)
-                .equalsIgnoreCase(SearchPreferences.EMPTY)) {
-            LocalDate dateArriveBefore = preferences.get(FlightFilter.DATE_ARRIVE_LATEST)
-                    .equalsIgnoreCase(SearchPreferences.EMPTY) ? LocalDate.ofEpochDay(0L)
-                            : TimeUtils.getInstance()
-                                    .generateDate(preferences.get(FlightFilter.DATE_ARRIVE_LATEST));
-
-            LocalTime timeArriveBefore = preferences.get(FlightFilter.TIME_ARRIVE_LATEST)
-                    .equalsIgnoreCase(SearchPreferences.EMPTY) ? LocalTime.ofSecondOfDay(86399)
-                            : TimeUtils.getInstance()
-                                    .generateTime(preferences.get(FlightFilter.TIME_ARRIVE_LATEST));
-
-            LocalDateTime arriveBefore = LocalDateTime.of(dateArriveBefore, timeArriveBefore);
-            if (arriveBefore.compareTo(flight.getArrivalTime()) < 0)
-                return false;
-        }
-
-        return true;
+        return CompiledFlightQuery.compile(preferences).matches(flight);
     }
 
     public static List<Flight> getValidFlights(
             EnumMap<? extends SearchFilter, String> preferences) {
+        CompiledFlightQuery query = CompiledFlightQuery.compile(preferences);
+        loadFlightDays(query);
+        return getValidFlights(query);
+    }
+
+    /**
+     * Finds every flight that passes a query
+     * @param query compiled flight filters
+     * @return matching flights
+     */
+    public static List<Flight> getValidFlights(CompiledFlightQuery query) {
         List<Flight> out = new ArrayList<Flight>();
 
-        for (Flight flight : DatabaseData.getInstance().getFlights()) {
-            if (isValidOption(flight, preferences)) {
-                out.add(flight);
-            }
+        // with departure airports only their boards need to be checked, starting from the
+        // earliest departure allowed
+        List<Flight> candidates;
+        Set<String> airportsFrom = query.getAirportsFrom();
+        if (airportsFrom == null) {
+            candidates = DatabaseData.getInstance().getFlights();
+        } else {
+            FlightGraph graph = SearchIndexes.getFlightGraph(DatabaseData.getInstance());
+            LocalDateTime departAfter = query.getDepartAfter();
+            candidates = new ArrayList<>();
+            for (String airport : airportsFrom)
+                candidates.addAll(departAfter == null ? graph.getDepartures(airport)
+                        : graph.getDeparturesAfter(airport, departAfter));
         }
 
-        return out;
-    }
-
-    private static class FlightPriorityElement implements Comparable<FlightPriorityElement> {
-        public Flight flight;
-        public int stepsFromStart;
-        private double cost;
-
-        FlightPriorityElement(Flight flight, double cost, int stepsFromStart) {
-            this.cost = cost;
-            this.flight = flight;
-            this.stepsFromStart = stepsFromStart;
+        ForkJoinPool current = SearchPool.get();
+        if (current != null && candidates.size() >= PARALLEL_FILTER_THRESHOLD) {
+            // an ordered stream keeps the flights in board order
+            List<Flight> source = candidates;
+            return current.submit(() -> source.parallelStream().filter(query::matches)
+                    .collect(Collectors.toList())).join();
         }
 
-        @Override
-        public int compareTo(FlightPriorityElement element) {
-            return Double.compare(this.cost, element.cost);
+        for (Flight flight : candidates) {
+            if (query.matches(flight)) {
+                out.add(flight);
+            }
         }
+
+        return out;
     }
 
+    /**
+     * Finds the shortest route by distance flown
+     * @param preferences flight filters, AIRPORT_TO is the destination
+     * @param excludingTrips trips that should not be returned again
+     * @return the flights of the route in order, empty if there is none
+     */
     public static List<Flight> findRoute(SearchPreferences preferences,
             List<FlightTrip> excludingTrips) {
-        Map<Flight, Flight> prevInPath = new HashMap<>();
-        Map<Flight, Double> costToReachFromStart = new HashMap<>();
-        PriorityQueue<FlightPriorityElement> toExplore = new PriorityQueue<>();
-
-        var startPrefs = preferences.clone().getFPref();
-        startPrefs.put(FlightFilter.AIRPORT_TO, SearchPreferences.EMPTY);
-        for (Flight start : getValidFlights(startPrefs)) {
-            prevInPath.put(start, null);
-            costToReachFromStart.put(start, 0.0);
-            toExplore.add(new FlightPriorityElement(start, 0.0, 0));
-        }
-
-        while (!toExplore.isEmpty()) {
-            var currElement = toExplore.poll();
-            Flight currentlyExploring = currElement.flight;
-            int currentStepsFromStart = currElement.stepsFromStart;
-
-            if (!preferences.getFPref().get(FlightFilter.LAYOVERS)
-                    .equalsIgnoreCase(SearchPreferences.EMPTY)
-                    && Integer.parseInt(preferences.getFPref()
-                            .get(FlightFilter.LAYOVERS)) < currentStepsFromStart)
-                continue;
-
-            String airportTo = preferences.getFPref().get(FlightFilter.AIRPORT_TO);
-            if (currentlyExploring.getAirportTo().equalsIgnoreCase(airportTo)) {
-                // flight found so reconstruct path by walking backwards through prevInPath
-                // starting
-                // from the end
-                List<Flight> path = new ArrayList<Flight>();
-
-                Flight currentFlight = currentlyExploring;
-                while (currentFlight != null) {
-                    path.add(0, currentFlight);
-                    currentFlight = prevInPath.get(currentFlight);
-                }
-
-                boolean skipPath = false;
-                for (var trip : excludingTrips)
-                    if (path.equals(trip.getFlights()))
-                        skipPath = true;
-                if (skipPath)
-                    continue;
-
-                return path;
-            }
-
-            var prefs = preferences.clone().getFPref();
-            prefs.put(FlightFilter.AIRPORT_FROM, currentlyExploring.getAirportTo());
-            prefs.put(FlightFilter.AIRPORT_TO, SearchPreferences.EMPTY);
-            prefs.put(FlightFilter.DATE_DEPART_EARLIEST, TimeUtils.getInstance()
-                    .toString(currentlyExploring.getArrivalTime().toLocalDate()));
-            prefs.put(FlightFilter.TIME_DEPART_EARLIEST, TimeUtils.getInstance()
-                    .toString(currentlyExploring.getArrivalTime().toLocalTime()));
-
-            for (Flight next : getValidFlights(prefs)) {
-                double currentNextCost = costToReachFromStart.get(currentlyExploring)
-                        + currentlyExploring.distanceToDestination(next);
-
-                if (!costToReachFromStart.containsKey(next)
-                        || costToReachFromStart.get(next) > currentNextCost) {
-                    costToReachFromStart.put(next, currentNextCost);
-
-                    toExplore.add(new FlightPriorityElement(next, 0.0, currentStepsFromStart + 1));
-                    prevInPath.put(next, currentlyExploring);
-                }
-            }
-        }
-
-        return new ArrayList<Flight>();
+        return findRoute(preferences, excludingTrips, FlightObjective.DISTANCE, new SearchStats());
     }
 
+    /**
+     * Finds the cheapest route for an objective with A*
+     * @param preferences flight filters, AIRPORT_TO is the destination
+     * @param excludingTrips trips that should not be returned again
+     * @param objective what the route should minimize
+     * @param stats counters to record the number of expanded nodes in
+     * @return the flights of the route in order, empty if there is none
+     */
+    public static List<Flight> findRoute(SearchPreferences preferences,
+            List<FlightTrip> excludingTrips, FlightObjective objective, SearchStats stats) {
+        loadFlightDays(CompiledFlightQuery.compile(preferences.getFPref()));
+        FlightGraph graph = SearchIndexes.getFlightGraph(DatabaseData.getInstance());
+        return new RouteFinder(graph, preferences.getFPref(), objective, stats)
+                .find(excludingTrips);
+    }
 }
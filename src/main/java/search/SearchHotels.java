@@ -1,8 +1,18 @@
 package search;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.EnumMap;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.DoubleAccumulator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import database.Data;
 import database.DatabaseData;
 import model.bookables.hotel.Hotel;
@@ -12,32 +22,301 @@ import search.filters.SearchFilter;
 import utils.TimeUtils;
 
 public class SearchHotels implements Search {
+    public static final int CACHE_SIZE = 256;
+    public static final Duration CACHE_TTL = Duration.ofMinutes(1);
+    public static final int PARALLEL_FILTER_THRESHOLD = 1024;
+    private static final SearchCache<Hotel> cache = new SearchCache<>(CACHE_SIZE, CACHE_TTL,
+            hotel -> List.of(hotel.getId()));
+
     public static List<Hotel> execute(SearchPreferences preferences) {
         Data data = DatabaseData.getInstance();
-        List<Hotel> out = new ArrayList<Hotel>();
-        // Loop through all the hotels
-        for(Hotel hotel : data.getHotels()) {
-            // Check if the hotel matches the preferences
-            if(matchesFilters(hotel, preferences.hPref))
-                out.add(hotel);
+        EnumMap<HotelFilter, String> hPref = preferences.hPref.clone();
+        // a rebuilt index means a hotel's location, company or features changed
+        return cache.get(SearchCache.key("HOTELS", hPref), data.getHotels(),
+                SearchIndexes.getHotelIndex(data), () -> {
+            return findMatches(data, hPref, getStay(hPref));
+        });
+    }
+
+    /**
+     * Finds one page of the best matching hotels
+     * Only the best k after the cursor are kept while scanning, in a heap, so a page takes
+     * memory for k hotels no matter how many match. Pages are cached like execute's results.
+     * @param preferences search preferences, RATING is the lowest rating allowed
+     * @param sort what hotels are ranked by
+     * @param k hotels per page
+     * @param after cursor from the previous page, null for the first page
+     * @return the page and the cursor for the next one
+     */
+    public static HotelPage executeRanked(SearchPreferences preferences, HotelSort sort, int k,
+            HotelPage.Cursor after) {
+        if (after != null && after.getSort() != sort)
+            throw new IllegalArgumentException("Cursor is from a " + after.getSort() + " ranking");
+        Data data = DatabaseData.getInstance();
+        EnumMap<HotelFilter, String> hPref = preferences.hPref.clone();
+        LocalDate[] stay = getStay(hPref);
+        LocalDate from = stay == null ? null : stay[0];
+        LocalDate to = stay == null ? null : stay[1];
+
+        String key = SearchCache.key("HOTELS_RANKED|" + sort + "|" + k + "|"
+                + (after == null ? "" : after), hPref);
+        List<Hotel> ranked = cache.get(key, data.getHotels(), SearchIndexes.getHotelIndex(data),
+                () -> rank(data, hPref, stay, sort, k, after));
+        List<Hotel> hotels = new ArrayList<>(ranked.subList(0, Math.min(Math.max(k, 0),
+                ranked.size())));
+        HotelPage.Cursor next = null;
+        if (ranked.size() > k && k > 0) {
+            Hotel last = ranked.get(k - 1);
+            next = new HotelPage.Cursor(sort, sort.score(last, from, to), last.getId());
         }
+        return new HotelPage(hotels, next);
+    }
+
+    /**
+     * Ranks the matching hotels after a cursor
+     * @return the best k + 1 hotels, the extra one tells if there is another page
+     */
+    private static List<Hotel> rank(Data data, EnumMap<HotelFilter, String> hPref,
+            LocalDate[] stay, HotelSort sort, int k, HotelPage.Cursor after) {
+        LocalDate from = stay == null ? null : stay[0];
+        LocalDate to = stay == null ? null : stay[1];
+        // worst kept hotel on top, one extra is kept to know if there is another page
+        Comparator<Ranked> order = Comparator.comparingDouble((Ranked r) -> r.score)
+                .thenComparing(r -> r.hotel.getId());
+        PriorityQueue<Ranked> best = new PriorityQueue<>(order.reversed());
+        int keep = Math.max(k, 0) + 1;
+        forEachMatch(data, hPref, stay, hotel -> {
+            double score = sort.score(hotel, from, to);
+            if (after != null && !after.isBefore(score, hotel.getId()))
+                return;
+            best.add(new Ranked(hotel, score));
+            if (best.size() > keep)
+                best.poll();
+        });
+
+        List<Ranked> ranked = new ArrayList<>(best);
+        ranked.sort(order);
+        List<Hotel> hotels = new ArrayList<>();
+        for (Ranked r : ranked)
+            hotels.add(r.hotel);
+        return hotels;
+    }
+
+    /**
+     * Finds the cheapest set of free rooms in one matching hotel that sleeps a whole party
+     * Hotels are searched in parallel on the search pool and share the best total found so far,
+     * so a hotel stops as soon as it can't beat it
+     * @param preferences search preferences
+     * @param people party size
+     * @return the cheapest rooms, null if no hotel can sleep the party
+     */
+    public static RoomCombination executeRooms(SearchPreferences preferences, int people) {
+        Data data = DatabaseData.getInstance();
+        EnumMap<HotelFilter, String> hPref = preferences.hPref.clone();
+        LocalDate[] stay = getStay(hPref);
+        LocalDate from = stay == null ? null : stay[0];
+        LocalDate to = stay == null ? null : stay[1];
+        List<Hotel> hotels = findMatches(data, hPref, stay);
+
+        DoubleAccumulator bound = new DoubleAccumulator(Math::min, Double.POSITIVE_INFINITY);
+        Function<Hotel, RoomCombination> cheapest = hotel -> {
+            RoomCombination rooms = RoomCombination.cheapest(hotel, from, to, people, bound.get());
+            if (rooms != null)
+                bound.accumulate(rooms.getCost());
+            return rooms;
+        };
+        ForkJoinPool pool = SearchPool.get();
+        List<RoomCombination> found = pool == null
+                ? hotels.stream().map(cheapest).collect(Collectors.toList())
+                : pool.submit(() -> hotels.parallelStream().map(cheapest)
+                        .collect(Collectors.toList())).join();
+
+        // first in list order among the cheapest, so the answer doesn't depend on timing
+        RoomCombination best = null;
+        for (RoomCombination rooms : found)
+            if (rooms != null && (best == null || rooms.getCost() < best.getCost()))
+                best = rooms;
+        return best;
+    }
+
+    /**
+     * Finds the cheapest stays of a fixed length inside a date range in one sweep per hotel
+     * instead of one search per check-in date
+     * @param preferences search preferences, the dates are ignored
+     * @param nights nights to stay
+     * @param first first night a stay may start
+     * @param last last night a stay may include
+     * @param k how many stays to return
+     * @return stays cheapest first, ties broken by check-in date then hotel id
+     */
+    public static List<StayWindow> executeStayWindows(SearchPreferences preferences, int nights,
+            LocalDate first, LocalDate last, int k) {
+        List<StayWindow> out = new ArrayList<>();
+        if (nights < 1 || k <= 0 || last.isBefore(first))
+            return out;
+        Data data = DatabaseData.getInstance();
+        EnumMap<HotelFilter, String> hPref = preferences.hPref.clone();
+
+        Comparator<StayWindow> order = Comparator.comparingDouble(StayWindow::getMinCost)
+                .thenComparing(StayWindow::getCheckIn)
+                .thenComparing(window -> window.getHotel().getId());
+        // worst kept stay on top
+        PriorityQueue<StayWindow> best = new PriorityQueue<>(order.reversed());
+        forEachMatch(data, hPref, null, hotel -> StayWindow.sweep(hotel, first, last, nights,
+                (checkIn, price) -> {
+                    StayWindow window = new StayWindow(hotel, checkIn, nights, price * nights);
+                    if (best.size() == k && order.compare(window, best.peek()) >= 0)
+                        return;
+                    best.add(window);
+                    if (best.size() > k)
+                        best.poll();
+                }));
+
+        out.addAll(best);
+        out.sort(order);
         return out;
     }
 
-    private static boolean matchesFilters(Hotel hotel,EnumMap<? extends SearchFilter, String> preferences) {
-        
-        boolean correctCompany = hotel.getCompany().equalsIgnoreCase(preferences.get(HotelFilter.COMPANY)) 
-        || preferences.get(HotelFilter.COMPANY).equalsIgnoreCase("any") || preferences.get(HotelFilter.COMPANY).equalsIgnoreCase("none");
+    private static class Ranked {
+        private final Hotel hotel;
+        private final double score;
 
-        boolean correctLocation = hotel.getLocation().equalsIgnoreCase(preferences.get(HotelFilter.LOCATION)) 
-        || preferences.get(HotelFilter.LOCATION).equalsIgnoreCase("any") || preferences.get(HotelFilter.LOCATION).equalsIgnoreCase("none");
+        Ranked(Hotel hotel, double score) {
+            this.hotel = hotel;
+            this.score = score;
+        }
+    }
 
-        TimeUtils timeUtil = TimeUtils.getInstance();
-        boolean correctDates = hotel
-                .getAvailableOptions(timeUtil.generateDate(preferences.get(HotelFilter.DATE_START)),
-                        timeUtil.generateDate(preferences.get(HotelFilter.DATE_END)))
-                .size() != 0;
+    /**
+     * Passes every hotel matching the preferences to an action, in list order
+     */
+    private static void forEachMatch(Data data, EnumMap<HotelFilter, String> hPref,
+            LocalDate[] stay, Consumer<Hotel> action) {
+        if (stay != null && stay[1].isBefore(stay[0]))
+            return;
+        Predicate<Hotel> matches = getMatcher(hPref, stay);
+        for(Hotel hotel : getCandidates(data, hPref)) {
+            if(matches.test(hotel))
+                action.accept(hotel);
+        }
+    }
 
-        return correctLocation && correctCompany && correctDates;
+    /**
+     * Collects every hotel matching the preferences, in list order
+     * Large candidate lists are split into chunks checked on the search pool, an ordered stream
+     * keeps the merged result in list order. Small ones stay on the calling thread where forking
+     * would cost more than it saves.
+     */
+    private static List<Hotel> findMatches(Data data, EnumMap<HotelFilter, String> hPref,
+            LocalDate[] stay) {
+        List<Hotel> out = new ArrayList<>();
+        if (stay != null && stay[1].isBefore(stay[0]))
+            return out;
+        Predicate<Hotel> matches = getMatcher(hPref, stay);
+        List<Hotel> candidates = getCandidates(data, hPref);
+
+        ForkJoinPool pool = SearchPool.get();
+        if (pool != null && candidates.size() >= PARALLEL_FILTER_THRESHOLD)
+            return pool.submit(() -> candidates.parallelStream().filter(matches)
+                    .collect(Collectors.toList())).join();
+
+        for (Hotel hotel : candidates)
+            if (matches.test(hotel))
+                out.add(hotel);
+        return out;
+    }
+
+    /**
+     * Only hotels in every posting list need their rooms checked
+     */
+    private static List<Hotel> getCandidates(Data data, EnumMap<HotelFilter, String> hPref) {
+        return SearchIndexes.getHotelIndex(data).find(get(hPref, HotelFilter.LOCATION),
+                get(hPref, HotelFilter.COMPANY), getFeatures(hPref));
+    }
+
+    /**
+     * Checks the rating and the stay, the filters the index can't answer
+     */
+    private static Predicate<Hotel> getMatcher(EnumMap<HotelFilter, String> hPref,
+            LocalDate[] stay) {
+        double minRating = getMinRating(hPref);
+        return hotel -> hotel.getRating() >= minRating
+                && (stay == null || hotel.hasAvailableRoom(stay[0], stay[1]));
+    }
+
+    /**
+     * Finds the hotels in a city matching every preference except the location and dates
+     * @param data data to search
+     * @param hPref hotel preferences
+     * @param city location the hotels must be in, null for any
+     * @return matching hotels in list order
+     */
+    static List<Hotel> findInCity(Data data, EnumMap<HotelFilter, String> hPref, String city) {
+        double minRating = getMinRating(hPref);
+        List<Hotel> out = new ArrayList<>();
+        HotelIndex index = SearchIndexes.getHotelIndex(data);
+        for (Hotel hotel : index.find(city, get(hPref, HotelFilter.COMPANY), getFeatures(hPref)))
+            if (hotel.getRating() >= minRating)
+                out.add(hotel);
+        return out;
+    }
+
+    private static double getMinRating(EnumMap<HotelFilter, String> hPref) {
+        String rating = get(hPref, HotelFilter.RATING);
+        return rating == null ? Double.NEGATIVE_INFINITY : Double.parseDouble(rating);
+    }
+
+    /**
+     * Gets the cache of hotels found by execute and executeRanked, BookingAgent invalidates it
+     * @return the shared cache
+     */
+    public static SearchCache<Hotel> getCache() {
+        return cache;
+    }
+
+    /**
+     * Gets a filter's value
+     * @return the trimmed value, null if it is unset
+     */
+    private static String get(EnumMap<? extends SearchFilter, String> preferences,
+            HotelFilter filter) {
+        String value = preferences.get(filter);
+        if (value == null)
+            return null;
+        value = value.trim();
+        if (value.isEmpty() || value.equalsIgnoreCase(SearchPreferences.EMPTY)
+                || value.equalsIgnoreCase(SearchPreferences.ANY))
+            return null;
+        return value;
+    }
+
+    /**
+     * Splits the comma separated features filter
+     * @return features a hotel must all have, empty if unset
+     */
+    private static List<String> getFeatures(EnumMap<? extends SearchFilter, String> preferences) {
+        List<String> features = new ArrayList<>();
+        String value = get(preferences, HotelFilter.FEATURES);
+        if (value == null)
+            return features;
+        for (String feature : value.split(","))
+            if (!feature.isBlank())
+                features.add(feature.trim());
+        return features;
+    }
+
+    /**
+     * Parses the stay, a single date is a one night stay
+     * @return first and last day, null if no dates are set
+     */
+    private static LocalDate[] getStay(EnumMap<? extends SearchFilter, String> preferences) {
+        TimeUtils timeUtil = TimeUtils.getInstance();
+        String start = get(preferences, HotelFilter.DATE_START);
+        String end = get(preferences, HotelFilter.DATE_END);
+        if (start == null && end == null)
+            return null;
+        LocalDate first = timeUtil.generateDate(start == null ? end : start);
+        LocalDate last = end == null ? first : timeUtil.generateDate(end);
+        return new LocalDate[] { first, last };
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,77 @@
+package search;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import database.Data;
+import model.bookables.flight.Flight;
+import model.bookables.hotel.Hotel;
+
+/**
+ * Search indexes kept for each Data instance, so the data layer does not depend on search
+ * Each index is rebuilt when the list it was built from is replaced or changes size, the hotel
+ * index also when a hotel is changed
+ */
+public class SearchIndexes {
+    private static final Map<Data, SearchIndexes> byData =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private FlightGraph flightGraph;
+    private HotelIndex hotelIndex;
+
+    private SearchIndexes() {
+    }
+
+    private static SearchIndexes of(Data data) {
+        return byData.computeIfAbsent(data, key -> new SearchIndexes());
+    }
+
+    /**
+     * Gets the departure board over data.getFlights()
+     * @param data data the flights come from
+     * @return index of flights by departure airport
+     */
+    public static FlightGraph getFlightGraph(Data data) {
+        SearchIndexes indexes = of(data);
+        synchronized (indexes) {
+            List<Flight> flights = data.getFlights();
+            if (indexes.flightGraph == null || !indexes.flightGraph.isBuiltFrom(flights))
+                indexes.flightGraph = new FlightGraph(flights);
+            return indexes.flightGraph;
+        }
+    }
+
+    /**
+     * Gets the location, company and feature index over data.getHotels()
+     * @param data data the hotels come from
+     * @return index of hotels by search term
+     */
+    public static HotelIndex getHotelIndex(Data data) {
+        SearchIndexes indexes = of(data);
+        synchronized (indexes) {
+            List<Hotel> hotels = data.getHotels();
+            if (indexes.hotelIndex == null || !indexes.hotelIndex.isBuiltFrom(hotels))
+                indexes.hotelIndex = new HotelIndex(hotels);
+            return indexes.hotelIndex;
+        }
+    }
+
+    /**
+     * Adds a flight, patching the departure board in place instead of rebuilding it
+     * @param data data to add the flight to
+     * @param flight flight to add
+     */
+    public static void addFlight(Data data, Flight flight) {
+        SearchIndexes indexes = of(data);
+        synchronized (indexes) {
+            List<Flight> flights = data.getFlights();
+            boolean current = indexes.flightGraph != null && indexes.flightGraph.isBuiltFrom(flights);
+            int size = flights.size();
+            data.addFlight(flight);
+            // data that replaces its list on add leaves the board stale, it is rebuilt on next use
+            if (current && data.getFlights() == flights && flights.size() == size + 1)
+                indexes.flightGraph.add(flight);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package search;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import database.Data;
+import database.DatabaseData;
+import model.bookables.TravelPackage;
+import model.bookables.flight.FlightTrip;
+import model.bookables.hotel.Hotel;
+import model.users.SearchPreferences;
+import search.filters.HotelFilter;
+
+/**
+ * Flight and hotel packages
+ * Trips are walked cheapest fare first and each is joined on the city it lands in to a table of
+ * the hotels in each city, filled once per city from the hotel index. Only the cheapest packages
+ * are kept, and the walk stops once a trip's fare plus the cheapest stay any matching hotel
+ * lists can't beat the worst of them, since every later trip costs at least as much.
+ */
+public class SearchPackages implements Search {
+    // trips looked at before giving up on filling k packages, e.g. when few trips land near hotels
+    public static final int MAX_TRIPS = 256;
+
+    private static class Candidate {
+        private final TravelPackage travelPackage;
+        private final int trip;
+
+        Candidate(TravelPackage travelPackage, int trip) {
+            this.travelPackage = travelPackage;
+            this.trip = trip;
+        }
+    }
+
+    // cheapest first, ties go to the cheaper trip then the hotel's id
+    private static final Comparator<Candidate> ORDER = Comparator
+            .comparingDouble((Candidate c) -> c.travelPackage.getMinCost())
+            .thenComparingInt(c -> c.trip)
+            .thenComparing(c -> c.travelPackage.getHotel().getId());
+
+    /**
+     * Finds the cheapest packages
+     * @param preferences flight filters for the trip, which need a destination like any trip
+     *        search, and hotel filters other than the location and dates, which come from
+     *        where and when each trip lands
+     * @param nights nights to stay, at least 1
+     * @param k how many packages to return
+     * @return packages cheapest first
+     */
+    public static List<TravelPackage> execute(SearchPreferences preferences, int nights,
+            int k) {
+        List<TravelPackage> out = new ArrayList<>();
+        if (nights < 1 || k <= 0)
+            return out;
+        Data data = DatabaseData.getInstance();
+        EnumMap<HotelFilter, String> hPref = preferences.hPref.clone();
+        double cheapestStay = Double.POSITIVE_INFINITY;
+        for (Hotel hotel : SearchHotels.findInCity(data, hPref, null))
+            cheapestStay = Math.min(cheapestStay, hotel.getMinListedCost() * nights);
+        if (Double.isInfinite(cheapestStay))
+            return out;
+
+        KShortestRoutes routes = SearchFlightTrips.routesByFare(preferences);
+        Map<String, List<Hotel>> hotelsByCity = new HashMap<>();
+        // worst kept package on top
+        PriorityQueue<Candidate> best = new PriorityQueue<>(ORDER.reversed());
+        for (int trip = 0; trip < MAX_TRIPS; trip++) {
+            RouteFinder.Route route = routes.next();
+            if (route == null || best.size() == k && route.getCost() + cheapestStay
+                    >= best.peek().travelPackage.getMinCost())
+                break;
+            probe(data, hPref, hotelsByCity, new FlightTrip(route.getFlights()), trip, nights,
+                    best, k);
+        }
+
+        List<Candidate> kept = new ArrayList<>(best);
+        kept.sort(ORDER);
+        for (Candidate candidate : kept)
+            out.add(candidate.travelPackage);
+        return out;
+    }
+
+    /**
+     * Joins one trip to the hotels in the city it lands in, keeping the k cheapest packages
+     */
+    private static void probe(Data data, EnumMap<HotelFilter, String> hPref,
+            Map<String, List<Hotel>> hotelsByCity, FlightTrip trip, int tripRank, int nights,
+            PriorityQueue<Candidate> best, int k) {
+        if (trip.getFlights().isEmpty())
+            return;
+        String city = trip.getFlights().get(trip.getFlights().size() - 1).getCityTo();
+        if (city == null)
+            return;
+
+        List<Hotel> hotels = hotelsByCity.computeIfAbsent(HotelIndex.key(city),
+                key -> SearchHotels.findInCity(data, hPref, key));
+        LocalDate checkIn = trip.getArrivalTime().toLocalDate();
+        LocalDate lastNight = checkIn.plusDays(nights - 1);
+        for (Hotel hotel : hotels) {
+            if (!hotel.hasAvailableRoom(checkIn, lastNight))
+                continue;
+            double cost = trip.getMinCost() + hotel.getMinCost(checkIn, lastNight) * nights;
+            best.add(new Candidate(new TravelPackage(trip, hotel, checkIn, lastNight, cost),
+                    tripRank));
+            if (best.size() > k)
+                best.poll();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package search;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Pool that flight, hotel and package searches split their work across
+ * Its size comes from the flighty.search.parallelism property, with 1 or less every search
+ * runs on the calling thread
+ */
+public class SearchPool {
+    public static final String PARALLELISM_PROPERTY = "flighty.search.parallelism";
+
+    private static volatile ForkJoinPool pool = create(Integer.getInteger(PARALLELISM_PROPERTY, 1));
+
+    private SearchPool() {
+    }
+
+    /**
+     * Gets the pool searches are split across
+     * @return the pool, null if searches run on the calling thread
+     */
+    public static ForkJoinPool get() {
+        return pool;
+    }
+
+    /**
+     * @return number of threads one search may use, 1 if searches run on the calling thread
+     */
+    public static int getParallelism() {
+        ForkJoinPool current = pool;
+        return current == null ? 1 : current.getParallelism();
+    }
+
+    /**
+     * Changes how many threads one search may use, searches already running finish on the old pool
+     * @param threads number of threads, 1 or less runs searches on the calling thread
+     */
+    public static synchronized void setParallelism(int threads) {
+        ForkJoinPool old = pool;
+        pool = create(threads);
+        if (old != null)
+            old.shutdown();
+    }
+
+    private static ForkJoinPool create(int threads) {
+        return threads > 1 ? new ForkJoinPool(threads) : null;
+    }
+}
@@ -0,0 +1,46 @@
+package search;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters filled in by a flight search so the work it did can be checked
+ * Safe to share between the threads of a parallel search
+ */
+public class SearchStats {
+    private final LongAdder expandedNodes = new LongAdder();
+    private final LongAdder queuedNodes = new LongAdder();
+
+    /**
+     * Records a node being taken off the queue and explored
+     */
+    public void expanded() {
+        expandedNodes.increment();
+    }
+
+    /**
+     * Records a node being put on the queue
+     */
+    public void queued() {
+        queuedNodes.increment();
+    }
+
+    /**
+     * @return number of nodes explored
+     */
+    public long getExpandedNodes() {
+        return expandedNodes.sum();
+    }
+
+    /**
+     * @return number of nodes put on the queue
+     */
+    public long getQueuedNodes() {
+        return queuedNodes.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "{" + "\"expandedNodes\": " + getExpandedNodes() + ", "
+                + "\"queuedNodes\": " + getQueuedNodes() + "}";
+    }
+}
@@ -0,0 +1,88 @@
+package search;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.TreeMap;
+import model.bookables.hotel.Hotel;
+import model.bookables.hotel.Room;
+
+/**
+ * A hotel's cheapest room for a run of nights
+ */
+public class StayWindow {
+    private final Hotel hotel;
+    private final LocalDate checkIn;
+    private final int nights;
+    private final double cost;
+
+    StayWindow(Hotel hotel, LocalDate checkIn, int nights, double cost) {
+        this.hotel = hotel;
+        this.checkIn = checkIn;
+        this.nights = nights;
+        this.cost = cost;
+    }
+
+    /**
+     * Slides a window of nights across a date range, calling back with the cheapest free room
+     * for every position
+     * Each room counts how many nights in a row it has been free. It joins a multiset of prices
+     * when the count reaches the window length and leaves it the day it is booked again, so
+     * moving the window is one calendar lookup per room and the cheapest price is the first key.
+     * @param hotel hotel to sweep
+     * @param first first night a stay may start
+     * @param last last night a stay may include
+     * @param nights length of the stay
+     * @param window called with each check-in date and the nightly price of the cheapest room
+     *        free for the whole stay, skipped if there is none
+     */
+    static void sweep(Hotel hotel, LocalDate first, LocalDate last, int nights, Window window) {
+        List<Room> rooms = hotel.getOptions();
+        int[] freeRun = new int[rooms.size()];
+        TreeMap<Double, Integer> prices = new TreeMap<>();
+
+        for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+            for (int r = 0; r < rooms.size(); r++) {
+                Room room = rooms.get(r);
+                if (room.isBooked(day, day)) {
+                    if (freeRun[r] >= nights)
+                        prices.computeIfPresent(room.getPrice(), (k, n) -> n == 1 ? null : n - 1);
+                    freeRun[r] = 0;
+                } else if (++freeRun[r] == nights) {
+                    prices.merge(room.getPrice(), 1, Integer::sum);
+                }
+            }
+            if (!prices.isEmpty())
+                window.accept(day.minusDays(nights - 1L), prices.firstKey());
+        }
+    }
+
+    /**
+     * Receives the cheapest room for each window position
+     */
+    interface Window {
+        void accept(LocalDate checkIn, double price);
+    }
+
+    public Hotel getHotel() {
+        return hotel;
+    }
+
+    public LocalDate getCheckIn() {
+        return checkIn;
+    }
+
+    public LocalDate getLastNight() {
+        return checkIn.plusDays(nights - 1L);
+    }
+
+    public int getNights() {
+        return nights;
+    }
+
+    /**
+     * @return price of the cheapest room for every night of the stay
+     */
+    public double getMinCost() {
+        return cost;
+    }
+}
@@ -16,4 +16,5 @@ public enum FlightFilter implements SearchFilter {
     TIME_ARRIVE_LATEST, 
     DATE_ARRIVE_LATEST,
     LAYOVERS,
+    AIRPORT_RADIUS,
 }
@@ -10,5 +10,6 @@ public enum HotelFilter implements SearchFilter {
     COMPANY,
     DATE_START,
     DATE_END,
-    RATING
+    RATING,
+    FEATURES
 }
@@ -0,0 +1,94 @@
+package database;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import com.mongodb.BasicDBObject;
+import model.bookables.Bookable;
+import model.bookables.flight.Flight;
+import model.bookables.flight.Seat;
+
+/**
+ * Compares saving booked seats one document at a time against the bulk write path
+ * Needs a local mongod, it writes to its own FlightyBenchmark database and drops it afterwards
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=database.DatabaseWriteBenchmark
+ */
+class DatabaseWriteBenchmark {
+    static final int FLIGHTS = 2000;
+    static final int SEATS = 150;
+    static final int BOOKED = 200;
+
+    public static void main(String[] args) {
+        Database db = new Database("FlightyBenchmark");
+        try {
+            List<Flight> flights = load(db);
+            System.out.println("per document: " + perDocument(db, flights) + " ms");
+            System.out.println("bulk:         " + bulk(db, flights) + " ms");
+        }
+        finally {
+            db.dropAll();
+        }
+    }
+
+    static List<Flight> load(Database db) {
+        List<Flight> flights = new ArrayList<>();
+        Database.Batch batch = db.batch();
+        for (int i = 0; i < FLIGHTS; i++) {
+            var seats = new ArrayList<Bookable>();
+            Flight flight = new Flight(LocalDateTime.now(), LocalDateTime.now().plusHours(2), "AUS", "JFK", seats,
+                    "AA", 4.0, 0, 0, 1, 1);
+            for (int s = 0; s < SEATS; s++)
+                seats.add(new Seat(s / 6 + 1, String.valueOf((char) ('A' + s % 6)), false, 100 + s, flight));
+            flights.add(flight);
+            batch.replace("Flights", flight.getId(), flight);
+        }
+        batch.execute();
+        db.getAll("Flights").getCollection().createIndex(new BasicDBObject("id", 1));
+        for (Flight flight : flights)
+            flight.markClean();
+        return flights;
+    }
+
+    static void book(List<Flight> flights, int round) {
+        for (int i = 0; i < BOOKED; i++) {
+            Flight flight = flights.get((i * 7 + round) % flights.size());
+            Seat seat = flight.getOptions().get((i + round) % SEATS);
+            if (seat.getIsBooked())
+                seat.unbook();
+            else
+                seat.book();
+        }
+    }
+
+    static long perDocument(Database db, List<Flight> flights) {
+        book(flights, 0);
+        long start = System.nanoTime();
+        for (Flight flight : flights) {
+            if (flight.isDirty()) {
+                db.update("Flights", flight.getId(), flight);
+                flight.markClean();
+            }
+        }
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    static long bulk(Database db, List<Flight> flights) {
+        book(flights, 1);
+        long start = System.nanoTime();
+        Database.Batch batch = db.batch();
+        List<Flight> written = new ArrayList<>();
+        for (Flight flight : flights) {
+            if (!flight.isDirty())
+                continue;
+            for (Bookable seat : flight.getOptions())
+                if (seat.isDirty())
+                    batch.update("Flights", new BasicDBObject("id", flight.getId()).append("bookables.id", seat.getId()),
+                            seat.getUpdate("bookables.$"));
+            written.add(flight);
+        }
+        batch.execute();
+        for (Flight flight : written)
+            flight.markClean();
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
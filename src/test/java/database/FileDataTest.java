@@ -0,0 +1,84 @@
+package database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import model.bookables.hotel.Hotel;
+import model.bookables.hotel.Room;
+import search.SearchIndexes;
+
+class FileDataTest {
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void init() throws IOException {
+        Files.copy(Paths.get(FileData.DEFAULT_DIRECTORY, "hotels.json"), directory.resolve("hotels.json"));
+    }
+
+    @AfterEach
+    void reset() {
+        Data.setInstance(null);
+    }
+
+    @Test
+    void testLoadsDumpAndMissingFiles() {
+        FileData data = new FileData(directory);
+
+        assertTrue(data.getHotels().size() > 0);
+        assertTrue(data.getFlights().isEmpty());
+        assertTrue(data.getBookings().isEmpty());
+        Data.setInstance(data);
+        assertSame(data.getHotels(), DatabaseData.getInstance().getHotels());
+        var index = SearchIndexes.getHotelIndex(data);
+        assertEquals(data.getHotels().size(), index.find(null, null, List.of()).size());
+    }
+
+    @Test
+    void testSaveRoundTrips() throws IOException {
+        FileData data = new FileData(directory);
+        Hotel hotel = data.getHotels().get(0);
+        hotel.getFeatures().add("rooftop bar");
+        hotel.markDirty();
+
+        data.saveAll();
+        FileData reloaded = new FileData(directory);
+
+        assertEquals(ids(data), ids(reloaded));
+        assertTrue(reloaded.getHotels().get(0).getFeatures().contains("rooftop bar"));
+        try (var files = Files.list(directory)) {
+            assertTrue(files.noneMatch(file -> file.toString().endsWith(".tmp")));
+        }
+    }
+
+    @Test
+    void testSaveWritesOnlyChangedCollections() throws IOException {
+        FileData data = new FileData(directory);
+        Path hotels = directory.resolve("hotels.json");
+        Files.writeString(hotels, "[]");
+
+        data.saveAll();
+        assertEquals("[]", Files.readString(hotels));
+        assertTrue(Files.notExists(directory.resolve("users.json")));
+
+        Room room = data.getHotels().get(0).getOptions().get(0);
+        room.bookRange(LocalDate.of(2030, 1, 1), LocalDate.of(2030, 1, 2));
+        data.saveAll();
+        assertEquals(data.getHotels().size(), new FileData(directory).getHotels().size());
+        assertFalse(data.getHotels().get(0).isDirty());
+    }
+
+    private static String ids(Data data) {
+        return data.getHotels().stream().map(Hotel::getId).collect(Collectors.joining(","));
+    }
+}
@@ -0,0 +1,109 @@
+package database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.*;
+import model.bookables.flight.Flight;
+import model.bookables.flight.Seat;
+
+class FlightDaysTest {
+    static final LocalDate DAY = LocalDate.of(2022, 1, 1);
+
+    List<List<LocalDate>> queries;
+    FlightDays days;
+
+    static Flight flight(LocalDate day) {
+        Flight flight = new Flight(day.atTime(10, 0), day.atTime(12, 0), "AUS", "JFK", new ArrayList<>(),
+                "AA", 0.0, 0.0, 0.0, 0.0, 0.0);
+        flight.markClean();
+        return flight;
+    }
+
+    List<Flight> load(List<LocalDate> wanted) {
+        queries.add(wanted);
+        List<Flight> flights = new ArrayList<>();
+        for (LocalDate day : wanted)
+            flights.add(flight(day));
+        return flights;
+    }
+
+    @BeforeEach
+    void init() {
+        queries = new ArrayList<>();
+        days = new FlightDays(3, this::load);
+    }
+
+    @Test
+    void testLoadsMissingDaysInOneQuery() {
+        assertTrue(days.load(DAY, DAY.plusDays(1)));
+        List<Flight> flights = days.getFlights();
+        assertEquals(2, flights.size());
+
+        assertFalse(days.load(DAY.plusDays(1), DAY.plusDays(1)));
+        assertSame(flights, days.getFlights());
+
+        assertTrue(days.load(DAY, DAY.plusDays(2)));
+        assertNotSame(flights, days.getFlights());
+        assertEquals(List.of(List.of(DAY, DAY.plusDays(1)), List.of(DAY.plusDays(2))), queries);
+        assertEquals(DAY.atTime(10, 0), days.getFlights().get(0).getDepartureTime());
+    }
+
+    @Test
+    void testDropsLeastRecentlyUsedDays() {
+        days.load(DAY, DAY.plusDays(2));
+        days.load(DAY, DAY);
+        days.load(DAY.plusDays(5), DAY.plusDays(5));
+
+        assertEquals(3, days.getDayCount());
+        assertTrue(days.isLoaded(DAY));
+        assertFalse(days.isLoaded(DAY.plusDays(1)));
+        assertTrue(days.isLoaded(DAY.plusDays(2)));
+    }
+
+    @Test
+    void testKeepsWindowAndUnsavedDays() {
+        days.load(DAY, DAY);
+        var seat = new Seat(1, "A", false, 10, days.getFlights().get(0));
+        seat.book();
+
+        days.load(DAY.plusDays(1), DAY.plusDays(4));
+
+        assertTrue(days.isLoaded(DAY));
+        assertEquals(5, days.getDayCount());
+    }
+
+    @Test
+    void testKeepsBookedDaysAfterSave() {
+        Set<Flight> booked = new HashSet<>();
+        days = new FlightDays(1, this::load, () -> booked);
+        days.load(DAY, DAY);
+        Flight flight = days.getFlights().get(0);
+        var seat = new Seat(1, "A", false, 10, flight);
+        seat.book();
+        booked.add(flight);
+        flight.markClean();
+
+        days.load(DAY.plusDays(1), DAY.plusDays(3));
+        days.load(DAY, DAY);
+
+        assertTrue(days.isLoaded(DAY));
+        assertSame(flight, days.getFlights().get(0));
+        seat.unbook();
+        booked.remove(flight);
+        // a save only walks the loaded flights
+        assertTrue(days.getFlights().contains(flight));
+        assertTrue(flight.isDirty());
+
+        flight.markClean();
+        days.load(DAY.plusDays(5), DAY.plusDays(5));
+        assertFalse(days.isLoaded(DAY));
+    }
+}
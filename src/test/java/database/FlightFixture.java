@@ -0,0 +1,90 @@
+package database;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import model.bookables.Bookable;
+import model.bookables.flight.Flight;
+import model.bookables.flight.Seat;
+import model.users.SearchPreferences;
+import search.filters.FlightFilter;
+import utils.TimeUtils;
+
+/**
+ * Base for search tests that run over made up flights
+ * Installs one FakeData for the test class and empties its flights and hotels before each test,
+ * flights made with the helpers are added to it
+ */
+public abstract class FlightFixture {
+    protected static FakeData fakeData;
+
+    @BeforeAll
+    public static void installFakeData() {
+        fakeData = new FakeData();
+        Data.setInstance(fakeData);
+    }
+
+    @BeforeEach
+    public void clearFakeData() {
+        fakeData.flights = new ArrayList<>();
+        fakeData.hotels = new ArrayList<>();
+    }
+
+    /**
+     * Adds a flight with no seats at the origin of the map
+     * @param depart departure as "M/d/y HH:mm"
+     * @param arrive arrival as "M/d/y HH:mm"
+     */
+    protected static Flight flight(String from, String to, String depart, String arrive) {
+        Flight flight = unlisted(from, to, depart, arrive);
+        fakeData.flights.add(flight);
+        return flight;
+    }
+
+    /**
+     * Makes a flight with no seats at the origin of the map without adding it to the data
+     */
+    protected static Flight unlisted(String from, String to, String depart, String arrive) {
+        return create(from, to, depart, arrive, new ArrayList<>(), 0.0, 0.0, 0.0, 0.0);
+    }
+
+    /**
+     * Adds a flight with one seat at the origin of the map
+     * @param price price of the seat
+     */
+    protected static Flight flight(String from, String to, String depart, String arrive,
+            double price) {
+        return flight(from, to, depart, arrive, price, 0.0, 0.0, 0.0, 0.0);
+    }
+
+    /**
+     * Adds a flight with one seat between two positions
+     * @param price price of the seat
+     */
+    protected static Flight flight(String from, String to, String depart, String arrive,
+            double price, double startX, double startY, double stopX, double stopY) {
+        List<Bookable> seats = new ArrayList<>();
+        Flight flight = create(from, to, depart, arrive, seats, startX, startY, stopX, stopY);
+        seats.add(new Seat(1, "A", false, price, flight));
+        fakeData.flights.add(flight);
+        return flight;
+    }
+
+    private static Flight create(String from, String to, String depart, String arrive,
+            List<Bookable> seats, double startX, double startY, double stopX, double stopY) {
+        TimeUtils timeUtils = TimeUtils.getInstance();
+        return new Flight(timeUtils.genDateTime(depart), timeUtils.genDateTime(arrive), from, to,
+                seats, "AA", 0.0, startX, startY, stopX, stopY);
+    }
+
+    /**
+     * @return preferences for trips between two airports
+     */
+    protected static SearchPreferences query(String from, String to) {
+        var prefs = new SearchPreferences();
+        prefs.fPref.put(FlightFilter.AIRPORT_FROM, from);
+        prefs.fPref.put(FlightFilter.AIRPORT_TO, to);
+        return prefs;
+    }
+}
@@ -0,0 +1,44 @@
+package database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.*;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+
+class PipelinedLoaderTest {
+    static List<DBObject> documents(int count) {
+        return IntStream.range(0, count).mapToObj(i -> (DBObject) new BasicDBObject("n", i)).collect(Collectors.toList());
+    }
+
+    @Test
+    void testKeepsCursorOrder() {
+        List<Integer> small = new ArrayList<>();
+        List<String> large = new ArrayList<>();
+        try (PipelinedLoader loader = new PipelinedLoader(3)) {
+            loader.load(documents(10).iterator(), object -> (Integer) object.get("n"), small);
+            loader.load(documents(5000).iterator(), object -> "#" + object.get("n"), large);
+            loader.join();
+        }
+
+        assertEquals(IntStream.range(0, 10).boxed().collect(Collectors.toList()), small);
+        assertEquals(IntStream.range(0, 5000).mapToObj(i -> "#" + i).collect(Collectors.toList()), large);
+    }
+
+    @Test
+    void testConversionFailureIsRethrown() {
+        try (PipelinedLoader loader = new PipelinedLoader(2)) {
+            loader.load(documents(1000).iterator(), object -> {
+                if ((int) object.get("n") == 700)
+                    throw new IllegalStateException("bad document");
+                return object;
+            }, new ArrayList<>());
+
+            assertThrows(IllegalStateException.class, loader::join);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.*;
+import database.FlightFixture;
+import model.bookables.flight.Flight;
+import model.users.SearchPreferences;
+import search.filters.FlightFilter;
+import utils.GeoUtils;
+
+class AirportIndexTest extends FlightFixture {
+    static FlightSearchEngine previousEngine;
+
+    @BeforeAll
+    static void initAll() {
+        previousEngine = SearchFlightTrips.getEngine();
+    }
+
+    @AfterAll
+    static void tearDownAll() {
+        SearchFlightTrips.setEngine(previousEngine);
+    }
+
+    @Test
+    void testMatchesBruteForce() {
+        Random random = new Random(17);
+        Map<String, double[]> airports = new HashMap<>();
+        for (int i = 0; i < 500; i++)
+            airports.put("A" + i, new double[] {random.nextDouble() * 180 - 90,
+                    random.nextDouble() * 360 - 180});
+        airports.put("WEST", new double[] {10, 179.9});
+        airports.put("EAST", new double[] {10, -179.9});
+        var index = new AirportIndex(airports);
+
+        for (String from : List.of("A0", "A1", "A2", "WEST")) {
+            for (double km : new double[] {50, 800, 3000}) {
+                double[] at = airports.get(from);
+                var expected = new HashSet<String>();
+                for (var airport : airports.entrySet())
+                    if (GeoUtils.distanceKm(at[0], at[1], airport.getValue()[0],
+                            airport.getValue()[1]) <= km)
+                        expected.add(airport.getKey());
+                List<String> found = index.within(at[0], at[1], km);
+                assertEquals(expected, new HashSet<>(found));
+                assertEquals(from, found.get(0));
+            }
+        }
+        assertTrue(index.near("west", 50).contains("EAST"));
+    }
+
+    @Test
+    void testRadiusSearchesNearbyAirports() {
+        double[] aus = {30.19, -97.67};
+        double[] sat = {29.53, -98.47};
+        double[] hou = {29.65, -95.28};
+        double[] iah = {29.98, -95.34};
+        double[] dfw = {32.90, -97.04};
+        flight("AUS", "DFW", "3/1/2022 08:00", "3/1/2022 09:00", 100, aus[0], aus[1],
+                dfw[0], dfw[1]);
+        flight("DFW", "HOU", "3/1/2022 10:00", "3/1/2022 11:00", 100, dfw[0], dfw[1],
+                hou[0], hou[1]);
+        Flight direct = flight("SAT", "IAH", "3/1/2022 08:00", "3/1/2022 09:00", 50, sat[0], sat[1],
+                iah[0], iah[1]);
+
+        for (FlightSearchEngine engine : FlightSearchEngine.values()) {
+            SearchFlightTrips.setEngine(engine);
+            SearchFlightTrips.getCache().clear();
+            var prefs = new SearchPreferences();
+            prefs.fPref.put(FlightFilter.AIRPORT_FROM, "AUS");
+            prefs.fPref.put(FlightFilter.AIRPORT_TO, "HOU");
+            assertEquals(2, SearchFlightTrips.execute(prefs, 1).get(0).getFlights().size());
+
+            prefs.fPref.put(FlightFilter.AIRPORT_RADIUS, "120");
+            var trips = SearchFlightTrips.execute(prefs, 1);
+            assertEquals(List.of(direct), trips.get(0).getFlights(), engine.name());
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package search;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.*;
+import database.FlightFixture;
+import model.bookables.flight.Flight;
+import model.users.SearchPreferences;
+import search.filters.FlightFilter;
+
+class CompiledFlightQueryTest extends FlightFixture {
+    private Flight flight(String depart, String arrive, double price) {
+        return flight("ABC", "CBA", depart, arrive, price);
+    }
+
+    @Test
+    void testUnsetMatchesAll() {
+        var query = CompiledFlightQuery.compile(new SearchPreferences().fPref);
+        assertTrue(query.matches(flight("1/1/1 01:00", "1/1/1 02:00", 100)));
+    }
+
+    @Test
+    void testCaseInsensitiveAirports() {
+        var prefs = new SearchPreferences();
+        prefs.fPref.put(FlightFilter.AIRPORT_FROM, "abc");
+        prefs.fPref.put(FlightFilter.COMPANY, "aa");
+        var query = CompiledFlightQuery.compile(prefs.fPref);
+
+        assertTrue(query.matches(flight("1/1/1 01:00", "1/1/1 02:00", 100)));
+    }
+
+    @Test
+    void testArriveTimeWithoutDate() {
+        var prefs = new SearchPreferences();
+        prefs.fPref.put(FlightFilter.TIME_ARRIVE_LATEST, "12:00");
+        var query = CompiledFlightQuery.compile(prefs.fPref);
+
+        assertTrue(query.matches(flight("1/1/1 01:00", "1/1/1 02:00", 100)));
+        assertFalse(query.matches(flight("1/1/1 11:00", "1/1/1 13:00", 100)));
+    }
+
+    @Test
+    void testLegsIgnoreAirportsAndDeparture() {
+        var prefs = new SearchPreferences();
+        prefs.fPref.put(FlightFilter.AIRPORT_FROM, "XYZ");
+        prefs.fPref.put(FlightFilter.DATE_DEPART_EARLIEST, "2/2/2");
+        prefs.fPref.put(FlightFilter.PRICE, "50");
+        var legs = CompiledFlightQuery.compile(prefs.fPref).forLegs();
+
+        assertTrue(legs.matches(flight("1/1/1 01:00", "1/1/1 02:00", 50)));
+        assertFalse(legs.matches(flight("1/1/1 01:00", "1/1/1 02:00", 51)));
+    }
+}
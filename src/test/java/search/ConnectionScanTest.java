@@ -0,0 +1,74 @@
+package search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.*;
+import database.FlightFixture;
+import model.bookables.flight.Flight;
+import model.bookables.flight.FlightTrip;
+import search.filters.FlightFilter;
+
+class ConnectionScanTest extends FlightFixture {
+    static FlightSearchEngine previousEngine;
+
+    @BeforeAll
+    static void initAll() {
+        previousEngine = SearchFlightTrips.getEngine();
+        SearchFlightTrips.setEngine(FlightSearchEngine.CONNECTION_SCAN);
+    }
+
+    @AfterAll
+    static void tearDownAll() {
+        SearchFlightTrips.setEngine(previousEngine);
+    }
+
+    @Test
+    void testEarliestArrival() {
+        flight("A", "D", "1/1/1 01:00", "1/1/1 09:00");
+        Flight first = flight("A", "B", "1/1/1 01:00", "1/1/1 02:00");
+        Flight second = flight("B", "D", "1/1/1 03:00", "1/1/1 04:00");
+
+        var result = new ConnectionScan(SearchIndexes.getFlightGraph(fakeData).getConnections(),
+                query("A", "D").fPref, new SearchStats()).find(new ArrayList<>());
+
+        assertEquals(List.of(first, second), result);
+    }
+
+    @Test
+    void testMissedConnection() {
+        flight("A", "B", "1/1/1 01:00", "1/1/1 05:00");
+        flight("B", "C", "1/1/1 03:00", "1/1/1 04:00");
+
+        assertTrue(SearchFlightTrips.execute(query("A", "C")).isEmpty());
+    }
+
+    @Test
+    void testQueryLayovers() {
+        flight("ABC", "EFG", "1/1/1 01:00", "1/1/1 02:00");
+        flight("EFG", "CBA", "1/1/1 03:00", "1/1/1 04:00");
+
+        var prefs = query("ABC", "CBA");
+        prefs.fPref.put(FlightFilter.LAYOVERS, "0");
+        var table = SearchIndexes.getFlightGraph(fakeData).getConnections();
+        var result = new ConnectionScan(table, prefs.fPref, new SearchStats()).find(new ArrayList<>());
+
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void testSkipsExcludedRoute() {
+        Flight direct = flight("A", "D", "1/1/1 01:00", "1/1/1 04:00");
+        Flight first = flight("A", "B", "1/1/1 01:00", "1/1/1 02:00");
+        Flight second = flight("B", "D", "1/1/1 05:00", "1/1/1 06:00");
+
+        List<FlightTrip> excluded = new ArrayList<>();
+        excluded.add(new FlightTrip(List.of(direct)));
+        var result = new ConnectionScan(SearchIndexes.getFlightGraph(fakeData).getConnections(),
+                query("A", "D").fPref, new SearchStats()).find(excluded);
+
+        assertEquals(List.of(first, second), result);
+    }
+}
@@ -0,0 +1,56 @@
+package search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import java.time.LocalDate;
+import org.junit.jupiter.api.*;
+import database.FlightFixture;
+import search.filters.FlightFilter;
+
+class FareCalendarTest extends FlightFixture {
+    @Test
+    void testCheapestPerDay() {
+        flight("A", "D", "1/1/2022 08:00", "1/1/2022 10:00", 300);
+        flight("A", "D", "1/2/2022 08:00", "1/2/2022 10:00", 250);
+        // the connection is cheaper than the direct flight on the 2nd
+        flight("A", "B", "1/2/2022 06:00", "1/2/2022 07:00", 80);
+        flight("B", "D", "1/2/2022 23:00", "1/3/2022 01:00", 90);
+        // lands before the connection leaves
+        flight("A", "B", "1/3/2022 06:00", "1/3/2022 07:00", 10);
+        flight("A", "D", "1/4/2022 08:00", "1/4/2022 10:00", 400);
+
+        var calendar = SearchFlightTrips.executeFareCalendar(query("A", "D"),
+                LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 5));
+
+        assertEquals(300, calendar.getFare(LocalDate.of(2022, 1, 1)));
+        assertEquals(170, calendar.getFare(LocalDate.of(2022, 1, 2)));
+        assertEquals(Double.POSITIVE_INFINITY, calendar.getFare(LocalDate.of(2022, 1, 3)));
+        assertEquals(400, calendar.getFare(LocalDate.of(2022, 1, 4)));
+        assertEquals(3, calendar.toMap().size());
+    }
+
+    @Test
+    void testMatchesSearchPerDay() {
+        for (int day = 1; day <= 4; day++) {
+            flight("A", "B", "1/" + day + "/2022 06:00", "1/" + day + "/2022 07:00", 50 + day);
+            flight("B", "C", "1/" + day + "/2022 09:00", "1/" + day + "/2022 10:00", 60 - day);
+            flight("C", "D", "1/" + day + "/2022 12:00", "1/" + day + "/2022 13:00", 30);
+            flight("A", "D", "1/" + day + "/2022 12:00", "1/" + day + "/2022 13:00", 150 + day * 5);
+        }
+
+        var prefs = query("A", "D");
+        prefs.fPref.put(FlightFilter.LAYOVERS, "1");
+        var calendar = SearchFlightTrips.executeFareCalendar(prefs, LocalDate.of(2022, 1, 1),
+                LocalDate.of(2022, 1, 4));
+
+        // with one layover allowed the three flight route can't be used
+        for (int day = 1; day <= 4; day++)
+            assertEquals(150 + day * 5, calendar.getFare(LocalDate.of(2022, 1, day)));
+
+        prefs.fPref.put(FlightFilter.LAYOVERS, "2");
+        calendar = SearchFlightTrips.executeFareCalendar(prefs, LocalDate.of(2022, 1, 1),
+                LocalDate.of(2022, 1, 4));
+        // the middle flight is cheapest on the last day, so every trip waits for it
+        for (int day = 1; day <= 4; day++)
+            assertEquals(136 + day, calendar.getFare(LocalDate.of(2022, 1, day)));
+    }
+}
@@ -0,0 +1,68 @@
+package search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.List;
+import org.junit.jupiter.api.*;
+import database.FlightFixture;
+import model.bookables.flight.Flight;
+import utils.TimeUtils;
+
+class FlightGraphTest extends FlightFixture {
+    @Test
+    void testDeparturesSorted() {
+        Flight late = flight("ABC", "CBA", "1/1/1 05:00", "1/1/1 05:00");
+        Flight early = flight("ABC", "EFG", "1/1/1 01:00", "1/1/1 01:00");
+        flight("EFG", "CBA", "1/1/1 03:00", "1/1/1 03:00");
+
+        List<Flight> board = SearchIndexes.getFlightGraph(fakeData).getDepartures("abc");
+        assertEquals(List.of(early, late), board);
+    }
+
+    @Test
+    void testDeparturesAfter() {
+        Flight late = flight("ABC", "CBA", "1/1/1 05:00", "1/1/1 05:00");
+        Flight early = flight("ABC", "CBA", "1/1/1 01:00", "1/1/1 01:00");
+        Flight onTime = flight("ABC", "CBA", "1/1/1 03:00", "1/1/1 03:00");
+
+        var result = SearchIndexes.getFlightGraph(fakeData).getDeparturesAfter("ABC",
+                TimeUtils.getInstance().genDateTime("1/1/1 03:00"));
+        assertEquals(List.of(onTime, late), result);
+    }
+
+    @Test
+    void testAddFlightPatchesIndex() {
+        flight("ABC", "CBA", "1/1/1 01:00", "1/1/1 01:00");
+        FlightGraph graph = SearchIndexes.getFlightGraph(fakeData);
+
+        Flight added = unlisted("ABC", "CBA", "1/1/1 00:30", "1/1/1 00:30");
+        SearchIndexes.addFlight(fakeData, added);
+
+        assertSame(graph, SearchIndexes.getFlightGraph(fakeData));
+        assertEquals(added, graph.getDepartures("ABC").get(0));
+    }
+
+    @Test
+    void testRebuildWhenListChanges() {
+        FlightGraph graph = SearchIndexes.getFlightGraph(fakeData);
+        flight("ABC", "CBA", "1/1/1 01:00", "1/1/1 01:00");
+
+        assertNotSame(graph, SearchIndexes.getFlightGraph(fakeData));
+        assertTrue(SearchIndexes.getFlightGraph(fakeData).getDepartures("ABC").size() == 1);
+    }
+
+    @Test
+    void testAddLeavesHeldBoardUnchanged() {
+        Flight first = flight("ABC", "CBA", "1/1/1 01:00", "1/1/1 01:00");
+        FlightGraph graph = SearchIndexes.getFlightGraph(fakeData);
+        List<Flight> held = graph.getDeparturesAfter("ABC",
+                TimeUtils.getInstance().genDateTime("1/1/1 00:00"));
+
+        SearchIndexes.addFlight(fakeData, unlisted("ABC", "CBA", "1/1/1 00:30", "1/1/1 00:30"));
+
+        assertEquals(List.of(first), held);
+        assertEquals(2, graph.getDepartures("ABC").size());
+    }
+}
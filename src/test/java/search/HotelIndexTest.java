@@ -0,0 +1,90 @@
+package search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.*;
+import model.bookables.hotel.Hotel;
+
+class HotelIndexTest {
+    List<Hotel> hotels;
+
+    Hotel addHotel(String company, String location, String... features) {
+        Hotel hotel = new Hotel(new ArrayList<>(), company, 0.0, location);
+        hotel.getFeatures().addAll(List.of(features));
+        hotels.add(hotel);
+        return hotel;
+    }
+
+    @BeforeEach
+    void init() {
+        hotels = new ArrayList<>();
+    }
+
+    @Test
+    void testNoTermsReturnsAll() {
+        addHotel("smith", "earth");
+        hotels.add(new Hotel());
+
+        var index = new HotelIndex(hotels);
+
+        assertEquals(hotels, index.find(null, null, List.of()));
+    }
+
+    @Test
+    void testIntersectsTermsIgnoringCase() {
+        Hotel pool = addHotel("Smith", "Earth", "Pool", "Gym");
+        addHotel("smith", "earth", "gym");
+        addHotel("jones", "earth", "pool", "gym");
+        Hotel last = addHotel("smith", "EARTH", "gym", "POOL");
+
+        var index = new HotelIndex(hotels);
+
+        assertEquals(List.of(pool, last), index.find("earth", " SMITH ", List.of("pool", "gym")));
+        assertTrue(index.find("mars", null, List.of()).isEmpty());
+        assertTrue(index.find(null, null, List.of("spa")).isEmpty());
+    }
+
+    @Test
+    void testStaleAfterAdd() {
+        addHotel("smith", "earth");
+        var index = new HotelIndex(hotels);
+
+        assertTrue(index.isBuiltFrom(hotels));
+        addHotel("jones", "mars");
+        assertFalse(index.isBuiltFrom(hotels));
+    }
+
+    @Test
+    void testStaleAfterEdit() {
+        Hotel hotel = addHotel("smith", "earth");
+        var index = new HotelIndex(hotels);
+
+        hotel.getFeatures().add("pool");
+        hotel.markSearchFieldsChanged();
+        assertFalse(index.isBuiltFrom(hotels));
+        assertEquals(List.of(hotel), new HotelIndex(hotels).find(null, null, List.of("pool")));
+    }
+
+    @Test
+    void testUnrelatedChangesKeepIndex() {
+        Hotel hotel = addHotel("smith", "earth");
+        var index = new HotelIndex(hotels);
+
+        hotel.setFilters(new ArrayList<>());
+        hotel.markDirty();
+        new Hotel(new ArrayList<>(), "jones", 0.0, "mars").markSearchFieldsChanged();
+        assertTrue(index.isBuiltFrom(hotels));
+    }
+
+    @Test
+    void testStaleAfterReplace() {
+        addHotel("smith", "earth");
+        var index = new HotelIndex(hotels);
+
+        hotels.set(0, new Hotel(new ArrayList<>(), "jones", 0.0, "mars"));
+        assertFalse(index.isBuiltFrom(hotels));
+    }
+}
@@ -0,0 +1,80 @@
+package search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.*;
+import database.FlightFixture;
+import model.bookables.flight.Flight;
+import model.users.SearchPreferences;
+
+class MultiCitySearchTest extends FlightFixture {
+    @Test
+    void testRoundTripRespectsStay() {
+        Flight outEarly = flight("A", "B", "3/1/2022 08:00", "3/1/2022 10:00", 200);
+        Flight outLate = flight("A", "B", "3/3/2022 08:00", "3/3/2022 10:00", 100);
+        Flight backEarly = flight("B", "A", "3/3/2022 09:00", "3/3/2022 11:00", 100);
+        Flight backLate = flight("B", "A", "3/5/2022 12:00", "3/5/2022 14:00", 300);
+
+        List<ItineraryLeg> legs = List.of(
+                new ItineraryLeg("A", "B", LocalDate.of(2022, 3, 1), LocalDate.of(2022, 3, 3)),
+                new ItineraryLeg("B", "A", LocalDate.of(2022, 3, 3), LocalDate.of(2022, 3, 5),
+                        Duration.ofDays(2)));
+
+        var result = SearchFlightTrips.executeItinerary(new SearchPreferences(), legs,
+                FlightObjective.FARE, 10);
+
+        // the cheap return leaves too soon after either outbound flight lands
+        assertEquals(2, result.size());
+        assertEquals(List.of(outLate), result.get(0).getTrips().get(0).getFlights());
+        assertEquals(List.of(backLate), result.get(0).getTrips().get(1).getFlights());
+        assertEquals(400, result.get(0).getMinCost());
+        assertEquals(List.of(outEarly), result.get(1).getTrips().get(0).getFlights());
+        assertTrue(result.stream().noneMatch(
+                i -> i.getTrips().get(1).getFlights().contains(backEarly)));
+    }
+
+    @Test
+    void testMultiCityRankedByTime() {
+        flight("A", "B", "3/1/2022 08:00", "3/1/2022 12:00", 50);
+        Flight fast = flight("A", "B", "3/1/2022 09:00", "3/1/2022 10:00", 500);
+        Flight next = flight("B", "C", "3/2/2022 08:00", "3/2/2022 09:00", 50);
+        Flight last = flight("C", "D", "3/3/2022 08:00", "3/3/2022 09:00", 50);
+
+        List<ItineraryLeg> legs = List.of(
+                new ItineraryLeg("A", "B", LocalDate.of(2022, 3, 1), LocalDate.of(2022, 3, 1)),
+                new ItineraryLeg("B", "C", LocalDate.of(2022, 3, 2), LocalDate.of(2022, 3, 2)),
+                new ItineraryLeg("C", "D", LocalDate.of(2022, 3, 3), LocalDate.of(2022, 3, 3)));
+
+        var result = SearchFlightTrips.executeItinerary(new SearchPreferences(), legs,
+                FlightObjective.TRAVEL_TIME, 1);
+
+        assertEquals(1, result.size());
+        assertEquals(List.of(fast), result.get(0).getTrips().get(0).getFlights());
+        assertEquals(List.of(next), result.get(0).getTrips().get(1).getFlights());
+        assertEquals(List.of(last), result.get(0).getTrips().get(2).getFlights());
+        assertEquals(Duration.ofHours(3), result.get(0).getTravelTime());
+    }
+
+    @Test
+    void testLooksPastCheapestOptionsOfLeg() {
+        // more cheap outbound flights than are searched up front, all landing after the return
+        for (int i = 0; i < MultiCitySearch.OPTIONS_PER_LEG + 2; i++)
+            flight("A", "B", "3/3/2022 08:00", "3/3/2022 10:00", 100 + i);
+        Flight out = flight("A", "B", "3/1/2022 08:00", "3/1/2022 10:00", 500);
+        Flight back = flight("B", "A", "3/2/2022 09:00", "3/2/2022 11:00", 100);
+
+        List<ItineraryLeg> legs = List.of(
+                new ItineraryLeg("A", "B", LocalDate.of(2022, 3, 1), LocalDate.of(2022, 3, 3)),
+                new ItineraryLeg("B", "A", LocalDate.of(2022, 3, 2), LocalDate.of(2022, 3, 4)));
+
+        var result = SearchFlightTrips.executeItinerary(new SearchPreferences(), legs,
+                FlightObjective.FARE, 10);
+
+        assertEquals(1, result.size());
+        assertEquals(List.of(out), result.get(0).getTrips().get(0).getFlights());
+        assertEquals(List.of(back), result.get(0).getTrips().get(1).getFlights());
+    }
+}
@@ -0,0 +1,57 @@
+package search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.List;
+import org.junit.jupiter.api.*;
+import database.FlightFixture;
+import model.bookables.flight.Flight;
+import model.bookables.flight.FlightTrip;
+import search.filters.FlightFilter;
+
+class ParetoTripSearchTest extends FlightFixture {
+    @Test
+    void testFrontier() {
+        // fast and expensive
+        Flight direct = flight("A", "D", "1/1/1 01:00", "1/1/1 02:00", 500);
+        // slow and cheap
+        Flight viaB1 = flight("A", "B", "1/1/1 01:00", "1/1/1 02:00", 50);
+        Flight viaB2 = flight("B", "D", "1/1/1 05:00", "1/1/1 06:00", 50);
+        // slower and pricier than the trip through B
+        flight("A", "C", "1/1/1 01:00", "1/1/1 02:00", 100);
+        flight("C", "D", "1/1/1 07:00", "1/1/1 08:00", 100);
+
+        List<FlightTrip> result = SearchFlightTrips.executePareto(query("A", "D"));
+
+        assertEquals(2, result.size());
+        assertEquals(List.of(viaB1, viaB2), result.get(0).getFlights());
+        assertEquals(List.of(direct), result.get(1).getFlights());
+    }
+
+    @Test
+    void testFewerTransfersKept() {
+        // same price and time but one trip has a layover
+        Flight direct = flight("A", "D", "1/1/1 01:00", "1/1/1 04:00", 100);
+        flight("A", "B", "1/1/1 01:00", "1/1/1 02:00", 50);
+        flight("B", "D", "1/1/1 03:00", "1/1/1 04:00", 50);
+
+        List<FlightTrip> result = SearchFlightTrips.executePareto(query("A", "D"));
+
+        assertEquals(1, result.size());
+        assertEquals(List.of(direct), result.get(0).getFlights());
+    }
+
+    @Test
+    void testLayoverLimit() {
+        flight("A", "B", "1/1/1 01:00", "1/1/1 02:00", 50);
+        flight("B", "C", "1/1/1 03:00", "1/1/1 04:00", 50);
+        flight("C", "D", "1/1/1 05:00", "1/1/1 06:00", 50);
+
+        var prefs = query("A", "D");
+        prefs.fPref.put(FlightFilter.LAYOVERS, "1");
+
+        assertTrue(SearchFlightTrips.executePareto(prefs).isEmpty());
+        prefs.fPref.put(FlightFilter.LAYOVERS, "2");
+        assertEquals(1, SearchFlightTrips.executePareto(prefs).size());
+    }
+}
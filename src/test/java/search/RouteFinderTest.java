@@ -0,0 +1,90 @@
+package search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.*;
+import database.FlightFixture;
+import model.bookables.flight.Flight;
+
+class RouteFinderTest extends FlightFixture {
+    @Test
+    void testObjectiveChangesRoute() {
+        // direct flight is short but expensive, the detour is long but cheap
+        Flight direct = flight("A", "C", "1/1/1 01:00", "1/1/1 02:00", 500, 30, -97, 31, -97);
+        Flight first = flight("A", "B", "1/1/1 01:00", "1/1/1 03:00", 50, 30, -97, 35, -90);
+        Flight second = flight("B", "C", "1/1/1 04:00", "1/1/1 06:00", 50, 35, -90, 31, -97);
+
+        var byDistance = SearchFlightTrips.findRoute(query("A", "C"), new ArrayList<>(),
+                FlightObjective.DISTANCE, new SearchStats());
+        var byFare = SearchFlightTrips.findRoute(query("A", "C"), new ArrayList<>(),
+                FlightObjective.FARE, new SearchStats());
+        var byTime = SearchFlightTrips.findRoute(query("A", "C"), new ArrayList<>(),
+                FlightObjective.TRAVEL_TIME, new SearchStats());
+
+        assertEquals(List.of(direct), byDistance);
+        assertEquals(List.of(first, second), byFare);
+        assertEquals(List.of(direct), byTime);
+    }
+
+    @Test
+    void testHeuristicPrunesWrongDirection() {
+        // the destination is north, every other flight from the origin heads far south
+        flight("A", "D", "1/1/1 01:00", "1/1/1 02:00", 100, 30, -97, 32, -97);
+        for (int i = 0; i < 50; i++) {
+            String to = "S" + i;
+            flight("A", to, "1/1/1 01:00", "1/1/1 02:00", 100, 30, -97, 10 - i * 0.1, -97);
+            flight(to, "D", "1/1/1 03:00", "1/1/1 06:00", 100, 10 - i * 0.1, -97, 32, -97);
+        }
+
+        SearchStats stats = new SearchStats();
+        var result = SearchFlightTrips.findRoute(query("A", "D"), new ArrayList<>(),
+                FlightObjective.DISTANCE, stats);
+
+        assertEquals(1, result.size());
+        assertTrue(stats.getExpandedNodes() < 5);
+    }
+
+    @Test
+    void testTopKInCostOrder() {
+        Flight direct = flight("A", "D", "1/1/1 01:00", "1/1/1 02:00", 100, 30, -97, 31, -97);
+        Flight viaB1 = flight("A", "B", "1/1/1 01:00", "1/1/1 02:00", 100, 30, -97, 32, -97);
+        Flight viaB2 = flight("B", "D", "1/1/1 03:00", "1/1/1 04:00", 100, 32, -97, 31, -97);
+        Flight viaC1 = flight("A", "C", "1/1/1 01:00", "1/1/1 02:00", 100, 30, -97, 35, -97);
+        Flight viaC2 = flight("C", "D", "1/1/1 03:00", "1/1/1 04:00", 100, 35, -97, 31, -97);
+
+        var result = SearchFlightTrips.execute(query("A", "D"), 2);
+        assertEquals(2, result.size());
+        assertEquals(List.of(direct), result.get(0).getFlights());
+        assertEquals(List.of(viaB1, viaB2), result.get(1).getFlights());
+
+        var all = SearchFlightTrips.execute(query("A", "D"), 10);
+        assertEquals(3, all.size());
+        assertEquals(List.of(viaC1, viaC2), all.get(2).getFlights());
+    }
+
+    @Test
+    void testParallelMatchesSequential() {
+        for (int i = 0; i < 20; i++) {
+            String via = "V" + i;
+            flight("A", via, "1/1/1 01:00", "1/1/1 02:00", 100, 30, -97, 31 + i * 0.1, -96);
+            flight(via, "D", "1/1/1 03:00", "1/1/1 04:00", 100, 31 + i * 0.1, -96, 32, -95);
+            flight(via, "V" + ((i + 1) % 20), "1/1/1 02:30", "1/1/1 02:45", 100, 31 + i * 0.1,
+                    -96, 31 + ((i + 1) % 20) * 0.1, -96);
+        }
+
+        var sequential = SearchFlightTrips.execute(query("A", "D"), 15);
+        int previous = SearchPool.getParallelism();
+        try {
+            SearchFlightTrips.getCache().clear();
+            SearchPool.setParallelism(4);
+            var parallel = SearchFlightTrips.execute(query("A", "D"), 15);
+            assertEquals(15, parallel.size());
+            for (int i = 0; i < sequential.size(); i++)
+                assertEquals(sequential.get(i).getFlights(), parallel.get(i).getFlights());
+        } finally {
+            SearchPool.setParallelism(previous);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.*;
+import model.users.SearchPreferences;
+import search.filters.FlightFilter;
+
+class SearchCacheTest {
+    private final AtomicLong now = new AtomicLong();
+    private final List<String> source = new ArrayList<>();
+    private int searches;
+
+    private SearchCache<String> cache(int size) {
+        return new SearchCache<>(size, Duration.ofSeconds(10), result -> List.of(result),
+                now::get);
+    }
+
+    private List<String> search(String... results) {
+        searches++;
+        return List.of(results);
+    }
+
+    @Test
+    void testKeyIsNormalized() {
+        var a = new SearchPreferences();
+        a.fPref.put(FlightFilter.AIRPORT_FROM, " abc");
+        a.fPref.put(FlightFilter.COMPANY, "any");
+        var b = new SearchPreferences();
+        b.fPref.put(FlightFilter.AIRPORT_FROM, "ABC");
+
+        assertEquals(SearchCache.key("F", a.fPref), SearchCache.key("F", b.fPref));
+    }
+
+    @Test
+    void testHitsAndExpiry() {
+        var cache = cache(4);
+        cache.get("a", source, () -> search("x"));
+        cache.get("a", source, () -> search("x"));
+        assertEquals(1, searches);
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        now.addAndGet(Duration.ofSeconds(11).toNanos());
+        cache.get("a", source, () -> search("x"));
+        assertEquals(2, searches);
+    }
+
+    @Test
+    void testVersionChangeInvalidates() {
+        var cache = cache(4);
+        Object version = new Object();
+        cache.get("a", source, version, () -> search("x"));
+        cache.get("a", source, version, () -> search("x"));
+        assertEquals(1, searches);
+        cache.get("a", source, new Object(), () -> search("x"));
+        assertEquals(2, searches);
+    }
+
+    @Test
+    void testSourceChangeInvalidates() {
+        var cache = cache(4);
+        cache.get("a", source, () -> search("x"));
+        source.add("new");
+        cache.get("a", source, () -> search("x"));
+        assertEquals(2, searches);
+    }
+
+    @Test
+    void testInvalidateOnlyDropsReferencingEntries() {
+        var cache = cache(4);
+        cache.get("a", source, () -> search("x", "y"));
+        cache.get("b", source, () -> search("z"));
+
+        cache.invalidate("y");
+        assertEquals(1, cache.size());
+        cache.get("b", source, () -> search("z"));
+        assertEquals(2, searches);
+    }
+
+    @Test
+    void testLeastRecentlyUsedEvicted() {
+        var cache = cache(2);
+        cache.get("a", source, () -> search("x"));
+        cache.get("b", source, () -> search("y"));
+        cache.get("a", source, () -> search("x"));
+        cache.get("c", source, () -> search("z"));
+
+        cache.get("a", source, () -> search("x"));
+        assertEquals(3, searches);
+        cache.get("b", source, () -> search("y"));
+        assertEquals(4, searches);
+    }
+}
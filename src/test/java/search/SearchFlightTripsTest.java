@@ -1,16 +1,21 @@
 package search;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertIterableEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 import org.junit.jupiter.api.*;
 import database.Data;
 import database.FakeData;
 import model.bookables.Bookable;
 import model.bookables.flight.Flight;
+import model.bookables.flight.FlightTrip;
 import model.bookables.flight.Seat;
 import model.users.SearchPreferences;
 import search.filters.FlightFilter;
@@ -73,23 +78,6 @@ class SearchFlightTripsTest {
         assertTrue(result.isEmpty());
     }
 
-    @Test
-    void testQueryPrice() {
-        List<Bookable> seats = new ArrayList<>();
-        Flight flight = new Flight(LocalDateTime.MIN, LocalDateTime.MAX, "ABC", "CBA", seats, "AA",
-                0.0, 0.0, 0.0, 0.0, 0.0);
-        seats.add(new Seat(1, "A", false, 101, flight));
-
-        fakeData.flights.add(flight);
-        var prefs = new SearchPreferences();
-        prefs.fPref.put(FlightFilter.PRICE, "100");
-        prefs.fPref.put(FlightFilter.AIRPORT_FROM, "ABC");
-        prefs.fPref.put(FlightFilter.AIRPORT_TO, "CBA");
-
-        var result = SearchFlightTrips.findRoute(prefs, new ArrayList<>());
-        assertTrue(result.isEmpty());
-    }
-
     @Test
     void testQueryDepartTime() {
         List<Bookable> seats = new ArrayList<>();
@@ -115,82 +103,188 @@ class SearchFlightTripsTest {
     }
 
     @Test
-    void testQueryLayovers() {
-        List<Bookable> seats = new ArrayList<>();
-        Flight flight = new Flight(TimeUtils.getInstance().genDateTime("1/1/1 01:00"),
-                TimeUtils.getInstance().genDateTime("1/1/1 02:00"), "ABC", "EFG", seats, "AA", 0.0,
-                0.0, 0.0, 0.0, 0.0);
-        Flight flight2 = new Flight(TimeUtils.getInstance().genDateTime("1/1/1 03:00"),
-                TimeUtils.getInstance().genDateTime("1/1/1 04:00"), "EFG", "CBA", seats, "AA", 0.0,
-                0.0, 0.0, 0.0, 0.0);
-        FakeData.getInstance().getFlights().add(flight);
-        FakeData.getInstance().getFlights().add(flight2);
-
-        var prefs = new SearchPreferences();
-        prefs.fPref.put(FlightFilter.LAYOVERS, "0");
-        prefs.fPref.put(FlightFilter.AIRPORT_FROM, "ABC");
-        prefs.fPref.put(FlightFilter.AIRPORT_TO, "CBA");
-        var result = SearchFlightTrips.findRoute(prefs, new ArrayList<>());
-
-        assertTrue(result.isEmpty());
+    void testRequestsDateWindow() {
+        List<LocalDate> windows = new ArrayList<>();
+        Data.setInstance(new FakeData() {
+            @Override
+            public void loadFlightDays(LocalDate first, LocalDate last) {
+                windows.add(first);
+                windows.add(last);
+            }
+        });
+        try {
+            var prefs = new SearchPreferences();
+            prefs.fPref.put(FlightFilter.DATE_DEPART_EARLIEST, "1/5/2022");
+            prefs.fPref.put(FlightFilter.DATE_ARRIVE_LATEST, "1/7/2022");
+            SearchFlightTrips.getValidFlights(prefs.fPref);
+            prefs.fPref.put(FlightFilter.DATE_ARRIVE_LATEST, SearchPreferences.EMPTY);
+            SearchFlightTrips.getValidFlights(prefs.fPref);
+        } finally {
+            Data.setInstance(fakeData);
+        }
+
+        LocalDate first = LocalDate.of(2022, 1, 5);
+        assertIterableEquals(List.of(first, first.plusDays(2), first, first.plusDays(SearchFlightTrips.MAX_TRIP_DAYS)),
+                windows);
     }
 
-    @Test
-    void testFindPath() {
-        List<Bookable> seats = new ArrayList<>();
-        var flights = FakeData.getInstance().getFlights();
-
-        flights.add(new Flight(TimeUtils.getInstance().genDateTime("1/1/1 01:00"),
-                TimeUtils.getInstance().genDateTime("1/1/1 02:00"), "A", "B", seats, "AA", 0.0, 0.0,
-                0.0, 0.0, 0.0));
-        flights.add(new Flight(TimeUtils.getInstance().genDateTime("1/1/1 03:00"),
-                TimeUtils.getInstance().genDateTime("1/1/1 04:00"), "B", "C", seats, "AA", 0.0, 0.0,
-                0.0, 0.0, 0.0));
-        flights.add(new Flight(TimeUtils.getInstance().genDateTime("1/1/1 04:00"),
-                TimeUtils.getInstance().genDateTime("1/1/1 04:00"), "C", "D", seats, "AA", 0.0, 0.0,
-                0.0, 0.0, 0.0));
-
-        var prefs = new SearchPreferences();
-        prefs.fPref.put(FlightFilter.AIRPORT_FROM, "A");
-        prefs.fPref.put(FlightFilter.AIRPORT_TO, "D");
-        var result = SearchFlightTrips.execute(prefs);
-
-        assertFalse(result.isEmpty());
+    /**
+     * Route cases every engine has to pass, run once per engine by the nested classes below
+     */
+    abstract class EngineCases {
+        FlightSearchEngine previousEngine;
+
+        abstract FlightSearchEngine engine();
+
+        @BeforeEach
+        void useEngine() {
+            previousEngine = SearchFlightTrips.getEngine();
+            SearchFlightTrips.setEngine(engine());
+        }
+
+        @AfterEach
+        void restoreEngine() {
+            SearchFlightTrips.setEngine(previousEngine);
+        }
+
+        List<Flight> findRoute(SearchPreferences prefs) {
+            return engine().findRoute(prefs, new ArrayList<>(), new SearchStats());
+        }
+
+        @Test
+        void testQueryPrice() {
+            List<Bookable> seats = new ArrayList<>();
+            Flight flight = new Flight(LocalDateTime.MIN, LocalDateTime.MAX, "ABC", "CBA", seats, "AA",
+                    0.0, 0.0, 0.0, 0.0, 0.0);
+            seats.add(new Seat(1, "A", false, 101, flight));
+
+            fakeData.flights.add(flight);
+            var prefs = new SearchPreferences();
+            prefs.fPref.put(FlightFilter.PRICE, "100");
+            prefs.fPref.put(FlightFilter.AIRPORT_FROM, "ABC");
+            prefs.fPref.put(FlightFilter.AIRPORT_TO, "CBA");
+
+            var result = findRoute(prefs);
+            assertTrue(result.isEmpty());
+        }
+
+        @Test
+        void testQueryLayovers() {
+            List<Bookable> seats = new ArrayList<>();
+            Flight flight = new Flight(TimeUtils.getInstance().genDateTime("1/1/1 01:00"),
+                    TimeUtils.getInstance().genDateTime("1/1/1 02:00"), "ABC", "EFG", seats, "AA", 0.0,
+                    0.0, 0.0, 0.0, 0.0);
+            Flight flight2 = new Flight(TimeUtils.getInstance().genDateTime("1/1/1 03:00"),
+                    TimeUtils.getInstance().genDateTime("1/1/1 04:00"), "EFG", "CBA", seats, "AA", 0.0,
+                    0.0, 0.0, 0.0, 0.0);
+            FakeData.getInstance().getFlights().add(flight);
+            FakeData.getInstance().getFlights().add(flight2);
+
+            var prefs = new SearchPreferences();
+            prefs.fPref.put(FlightFilter.LAYOVERS, "0");
+            prefs.fPref.put(FlightFilter.AIRPORT_FROM, "ABC");
+            prefs.fPref.put(FlightFilter.AIRPORT_TO, "CBA");
+            var result = findRoute(prefs);
+
+            assertTrue(result.isEmpty());
+        }
+
+        @Test
+        void testFindPath() {
+            List<Bookable> seats = new ArrayList<>();
+            var flights = FakeData.getInstance().getFlights();
+
+            flights.add(new Flight(TimeUtils.getInstance().genDateTime("1/1/1 01:00"),
+                    TimeUtils.getInstance().genDateTime("1/1/1 02:00"), "A", "B", seats, "AA", 0.0, 0.0,
+                    0.0, 0.0, 0.0));
+            flights.add(new Flight(TimeUtils.getInstance().genDateTime("1/1/1 03:00"),
+                    TimeUtils.getInstance().genDateTime("1/1/1 04:00"), "B", "C", seats, "AA", 0.0, 0.0,
+                    0.0, 0.0, 0.0));
+            flights.add(new Flight(TimeUtils.getInstance().genDateTime("1/1/1 04:00"),
+                    TimeUtils.getInstance().genDateTime("1/1/1 04:00"), "C", "D", seats, "AA", 0.0, 0.0,
+                    0.0, 0.0, 0.0));
+
+            var prefs = new SearchPreferences();
+            prefs.fPref.put(FlightFilter.AIRPORT_FROM, "A");
+            prefs.fPref.put(FlightFilter.AIRPORT_TO, "D");
+            var result = SearchFlightTrips.execute(prefs);
+
+            assertFalse(result.isEmpty());
+            assertEquals(3, result.get(0).getFlights().size());
+        }
+
+        @Test
+        void testFindPathWithDeadEnd() {
+            List<Bookable> seats = new ArrayList<>();
+            var flights = FakeData.getInstance().getFlights();
+
+            flights.add(new Flight(TimeUtils.getInstance().genDateTime("1/1/1 01:00"),
+                    TimeUtils.getInstance().genDateTime("1/1/1 02:00"), "S", "A", seats, "AA", 0.0, 0.0,
+                    0.0, 1.0, 0.0));
+            flights.add(new Flight(TimeUtils.getInstance().genDateTime("1/1/1 03:00"),
+                    TimeUtils.getInstance().genDateTime("1/1/1 04:00"), "A", "B", seats, "AA", 0.0, 1.0,
+                    0.0, 8.0, 0.0));
+            flights.add(new Flight(TimeUtils.getInstance().genDateTime("1/1/1 03:00"),
+                    TimeUtils.getInstance().genDateTime("1/1/1 04:00"), "A", "C", seats, "AA", 0.0, 0.0,
+                    0.0, 0.0, 0.0));
+            flights.add(new Flight(TimeUtils.getInstance().genDateTime("1/1/1 05:00"),
+                    TimeUtils.getInstance().genDateTime("1/1/1 06:00"), "C", "D", seats, "AA", 0.0, 0.0,
+                    0.0, 9.0, 0.0));
+
+            var prefs = new SearchPreferences();
+            prefs.fPref.put(FlightFilter.AIRPORT_FROM, "A");
+            prefs.fPref.put(FlightFilter.AIRPORT_TO, "D");
+            var result = SearchFlightTrips.execute(prefs);
+
+            assertFalse(result.isEmpty());
+        }
+
+        @Test
+        void testQueryNothing() {
+            var prefs = new SearchPreferences();
+            prefs.fPref.put(FlightFilter.AIRPORT_FROM, "ABC");
+            prefs.fPref.put(FlightFilter.AIRPORT_TO, "CBA");
+            var result = SearchFlightTrips.execute(prefs);
+
+            assertTrue(result.isEmpty());
+        }
+
+        @Test
+        void testFallsBackToLaterArrival() {
+            var flights = FakeData.getInstance().getFlights();
+            TimeUtils timeUtils = TimeUtils.getInstance();
+            Flight direct = new Flight(timeUtils.genDateTime("1/1/1 01:00"),
+                    timeUtils.genDateTime("1/1/1 10:00"), "A", "C", new ArrayList<>(), "AA", 0.0,
+                    0.0, 0.0, 0.0, 0.0);
+            Flight first = new Flight(timeUtils.genDateTime("1/1/1 01:00"),
+                    timeUtils.genDateTime("1/1/1 02:00"), "A", "B", new ArrayList<>(), "AA", 0.0,
+                    0.0, 0.0, 0.0, 0.0);
+            Flight second = new Flight(timeUtils.genDateTime("1/1/1 11:00"),
+                    timeUtils.genDateTime("1/1/1 12:00"), "B", "C", new ArrayList<>(), "AA", 0.0,
+                    0.0, 0.0, 0.0, 0.0);
+            flights.addAll(List.of(direct, first, second));
+
+            var prefs = new SearchPreferences();
+            prefs.fPref.put(FlightFilter.AIRPORT_FROM, "A");
+            prefs.fPref.put(FlightFilter.AIRPORT_TO, "C");
+            var result = SearchFlightTrips.execute(prefs);
+
+            assertEquals(Set.of(List.of(direct), List.of(first, second)),
+                    result.stream().map(FlightTrip::getFlights).collect(Collectors.toSet()));
+        }
     }
 
-    @Test
-    void testFindPathWithDeadEnd() {
-        List<Bookable> seats = new ArrayList<>();
-        var flights = FakeData.getInstance().getFlights();
-
-        flights.add(new Flight(TimeUtils.getInstance().genDateTime("1/1/1 01:00"),
-                TimeUtils.getInstance().genDateTime("1/1/1 02:00"), "S", "A", seats, "AA", 0.0, 0.0,
-                0.0, 1.0, 0.0));
-        flights.add(new Flight(TimeUtils.getInstance().genDateTime("1/1/1 03:00"),
-                TimeUtils.getInstance().genDateTime("1/1/1 04:00"), "A", "B", seats, "AA", 0.0, 1.0,
-                0.0, 8.0, 0.0));
-        flights.add(new Flight(TimeUtils.getInstance().genDateTime("1/1/1 03:00"),
-                TimeUtils.getInstance().genDateTime("1/1/1 04:00"), "A", "C", seats, "AA", 0.0, 0.0,
-                0.0, 0.0, 0.0));
-        flights.add(new Flight(TimeUtils.getInstance().genDateTime("1/1/1 05:00"),
-                TimeUtils.getInstance().genDateTime("1/1/1 06:00"), "C", "D", seats, "AA", 0.0, 0.0,
-                0.0, 9.0, 0.0));
-
-        var prefs = new SearchPreferences();
-        prefs.fPref.put(FlightFilter.AIRPORT_FROM, "A");
-        prefs.fPref.put(FlightFilter.AIRPORT_TO, "D");
-        var result = SearchFlightTrips.execute(prefs);
-
-        assertFalse(result.isEmpty());
+    @Nested
+    class AStar extends EngineCases {
+        FlightSearchEngine engine() {
+            return FlightSearchEngine.A_STAR;
+        }
     }
 
-    @Test
-    void testQueryNothing() {
-        var prefs = new SearchPreferences();
-        prefs.fPref.put(FlightFilter.AIRPORT_FROM, "ABC");
-        prefs.fPref.put(FlightFilter.AIRPORT_TO, "CBA");
-        var result = SearchFlightTrips.execute(prefs);
-
-        assertTrue(result.isEmpty());
+    @Nested
+    class ConnectionScanEngine extends EngineCases {
+        FlightSearchEngine engine() {
+            return FlightSearchEngine.CONNECTION_SCAN;
+        }
     }
 }
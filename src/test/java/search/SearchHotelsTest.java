@@ -1,12 +1,16 @@
 package search;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertIterableEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import org.junit.jupiter.api.*;
+import com.mongodb.BasicDBObject;
 import database.Data;
 import database.FakeData;
 import model.bookables.Bookable;
@@ -128,4 +132,191 @@ class SearchHotelsTest {
 
         assertTrue(result.isEmpty());
     }
+
+    void addHotel(double rating, int price, int rooms) {
+        List<Bookable> bookables = new ArrayList<>();
+        Hotel hotel = new Hotel(bookables, "smith", rating, "earth");
+        for (int i = 0; i < rooms; i++)
+            bookables.add(new Room(new BasicDBObject("row", 1).append("col", "A" + i)
+                    .append("price", price + i).append("info", "").append("sleepingCapacity", 1)
+                    .append("bookedDays", new ArrayList<String>()), hotel));
+        fakeData.hotels.add(hotel);
+    }
+
+    @Test
+    void testRankedPagesMatchFullSort() {
+        for (int i = 0; i < 11; i++)
+            addHotel(i % 5, 100 - i * 7 % 13, 1 + i % 3);
+
+        for (HotelSort sort : HotelSort.values()) {
+            var prefs = new SearchPreferences();
+            prefs.hPref.put(HotelFilter.RATING, "1");
+            List<Hotel> expected = new ArrayList<>();
+            for (Hotel hotel : fakeData.hotels)
+                if (hotel.getRating() >= 1)
+                    expected.add(hotel);
+            expected.sort(Comparator.comparingDouble((Hotel h) -> sort.score(h, null, null))
+                    .thenComparing(Hotel::getId));
+
+            List<Hotel> paged = new ArrayList<>();
+            HotelPage page = SearchHotels.executeRanked(prefs, sort, 3, null);
+            paged.addAll(page.getHotels());
+            while (page.hasNext()) {
+                assertEquals(3, page.getHotels().size());
+                page = SearchHotels.executeRanked(prefs, sort, 3, page.getNext());
+                paged.addAll(page.getHotels());
+            }
+
+            assertIterableEquals(expected, paged);
+        }
+    }
+
+    @Test
+    void testRankedPriceForStay() {
+        addHotel(0, 50, 2);
+        addHotel(0, 80, 1);
+        Room cheap = fakeData.hotels.get(0).getOptions().get(0);
+        cheap.bookRange(LocalDate.of(2030, 1, 1), LocalDate.of(2030, 1, 3));
+
+        var prefs = new SearchPreferences();
+        prefs.hPref.put(HotelFilter.DATE_START, "1/2/2030");
+        prefs.hPref.put(HotelFilter.DATE_END, "1/2/2030");
+        var page = SearchHotels.executeRanked(prefs, HotelSort.PRICE, 1, null);
+
+        assertEquals(51, fakeData.hotels.get(0).getMinCost(LocalDate.of(2030, 1, 2),
+                LocalDate.of(2030, 1, 2)));
+        assertIterableEquals(List.of(fakeData.hotels.get(0)), page.getHotels());
+        assertTrue(page.hasNext());
+    }
+
+    @Test
+    void testRankedCachedUntilEdit() {
+        addHotel(0, 50, 1);
+        Hotel hotel = fakeData.hotels.get(0);
+        var prefs = new SearchPreferences();
+        prefs.hPref.put(HotelFilter.FEATURES, "pool");
+
+        assertTrue(SearchHotels.executeRanked(prefs, HotelSort.PRICE, 2, null).getHotels()
+                .isEmpty());
+        long hits = SearchHotels.getCache().getHits();
+        assertTrue(SearchHotels.executeRanked(prefs, HotelSort.PRICE, 2, null).getHotels()
+                .isEmpty());
+        assertEquals(hits + 1, SearchHotels.getCache().getHits());
+
+        hotel.getFeatures().add("pool");
+        hotel.markSearchFieldsChanged();
+        assertIterableEquals(List.of(hotel),
+                SearchHotels.executeRanked(prefs, HotelSort.PRICE, 2, null).getHotels());
+        assertIterableEquals(List.of(hotel), SearchHotels.execute(prefs));
+    }
+
+    Room addRoom(List<Bookable> bookables, Hotel hotel, double price, int beds) {
+        Room room = new Room(new BasicDBObject("row", 1).append("col", "A")
+                .append("price", price).append("info", "").append("sleepingCapacity", beds)
+                .append("bookedDays", new ArrayList<String>()), hotel);
+        bookables.add(room);
+        return room;
+    }
+
+    @Test
+    void testRoomsForParty() {
+        List<Bookable> bigRooms = new ArrayList<>();
+        Hotel big = new Hotel(bigRooms, "smith", 0.0, "earth");
+        addRoom(bigRooms, big, 300, 5);
+        List<Bookable> smallRooms = new ArrayList<>();
+        Hotel small = new Hotel(smallRooms, "jones", 0.0, "earth");
+        Room two = addRoom(smallRooms, small, 100, 2);
+        Room three = addRoom(smallRooms, small, 150, 3);
+        addRoom(smallRooms, small, 90, 1);
+        Room booked = addRoom(smallRooms, small, 50, 4);
+        booked.bookRange(LocalDate.of(2030, 1, 1), LocalDate.of(2030, 1, 1));
+        fakeData.hotels.add(big);
+        fakeData.hotels.add(small);
+
+        var prefs = new SearchPreferences();
+        prefs.hPref.put(HotelFilter.DATE_START, "1/1/2030");
+        prefs.hPref.put(HotelFilter.DATE_END, "1/2/2030");
+        var rooms = SearchHotels.executeRooms(prefs, 5);
+
+        assertEquals(small, rooms.getHotel());
+        assertEquals(250, rooms.getCost());
+        assertEquals(new HashSet<>(List.of(two, three)), new HashSet<>(rooms.getRooms()));
+        assertTrue(SearchHotels.executeRooms(prefs, 12) == null);
+    }
+
+    @Test
+    void testRoomsEqualToBoundAreKept() {
+        List<Bookable> rooms = new ArrayList<>();
+        Hotel hotel = new Hotel(rooms, "smith", 0.0, "earth");
+        // 3.1 / 3 * 3 rounds to just above 3.1
+        Room room = addRoom(rooms, hotel, 3.1, 3);
+
+        var found = RoomCombination.cheapest(hotel, null, null, 3, 3.1);
+
+        assertEquals(List.of(room), found.getRooms());
+    }
+
+    @Test
+    void testStayWindowsMatchEveryCheckIn() {
+        List<Bookable> rooms = new ArrayList<>();
+        Hotel first = new Hotel(rooms, "smith", 0.0, "earth");
+        addRoom(rooms, first, 100, 2).bookRange(LocalDate.of(2030, 3, 3), LocalDate.of(2030, 3, 3));
+        addRoom(rooms, first, 150, 2).bookRange(LocalDate.of(2030, 3, 8), LocalDate.of(2030, 3, 9));
+        List<Bookable> otherRooms = new ArrayList<>();
+        Hotel second = new Hotel(otherRooms, "jones", 0.0, "earth");
+        addRoom(otherRooms, second, 120, 2).bookRange(LocalDate.of(2030, 3, 5),
+                LocalDate.of(2030, 3, 6));
+        fakeData.hotels.add(first);
+        fakeData.hotels.add(second);
+
+        LocalDate from = LocalDate.of(2030, 3, 1);
+        LocalDate to = LocalDate.of(2030, 3, 10);
+        List<StayWindow> expected = new ArrayList<>();
+        for (Hotel hotel : fakeData.hotels)
+            for (LocalDate day = from; !day.plusDays(2).isAfter(to); day = day.plusDays(1))
+                if (hotel.hasAvailableRoom(day, day.plusDays(2)))
+                    expected.add(new StayWindow(hotel, day, 3,
+                            hotel.getMinCost(day, day.plusDays(2)) * 3));
+        expected.sort(Comparator.comparingDouble(StayWindow::getMinCost)
+                .thenComparing(StayWindow::getCheckIn).thenComparing(w -> w.getHotel().getId()));
+
+        var windows = SearchHotels.executeStayWindows(new SearchPreferences(), 3, from, to, 5);
+
+        assertEquals(5, windows.size());
+        for (int i = 0; i < windows.size(); i++) {
+            assertEquals(expected.get(i).getHotel(), windows.get(i).getHotel());
+            assertEquals(expected.get(i).getCheckIn(), windows.get(i).getCheckIn());
+            assertEquals(expected.get(i).getMinCost(), windows.get(i).getMinCost());
+        }
+        assertEquals(300, windows.get(0).getMinCost());
+        assertEquals(LocalDate.of(2030, 3, 4), windows.get(0).getCheckIn());
+    }
+
+    @Test
+    void testParallelMatchesSequential() {
+        for (int i = 0; i < SearchHotels.PARALLEL_FILTER_THRESHOLD * 2; i++) {
+            List<Bookable> rooms = new ArrayList<>();
+            Hotel hotel = new Hotel(rooms, i % 3 == 0 ? "smith" : "jones", i % 5, "earth");
+            addRoom(rooms, hotel, 100, 2).bookRange(LocalDate.of(2030, 1, 1 + i % 7),
+                    LocalDate.of(2030, 1, 1 + i % 7));
+            fakeData.hotels.add(hotel);
+        }
+        var prefs = new SearchPreferences();
+        prefs.hPref.put(HotelFilter.COMPANY, "jones");
+        prefs.hPref.put(HotelFilter.RATING, "2");
+        prefs.hPref.put(HotelFilter.DATE_START, "1/2/2030");
+        prefs.hPref.put(HotelFilter.DATE_END, "1/3/2030");
+
+        var sequential = SearchHotels.execute(prefs);
+        int previous = SearchPool.getParallelism();
+        try {
+            SearchHotels.getCache().clear();
+            SearchPool.setParallelism(4);
+            var parallel = SearchHotels.execute(prefs);
+            assertFalse(parallel.isEmpty());
+            assertIterableEquals(sequential, parallel);
+        } finally {
+            SearchPool.setParallelism(previous);
+        }
+    }
 }
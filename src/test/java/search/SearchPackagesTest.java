@@ -0,0 +1,100 @@
+package search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.*;
+import com.mongodb.BasicDBObject;
+import database.FlightFixture;
+import model.bookables.Bookable;
+import model.bookables.TravelPackage;
+import model.bookables.flight.Flight;
+import model.bookables.hotel.Hotel;
+import model.bookables.hotel.Room;
+import model.users.SearchPreferences;
+import search.filters.FlightFilter;
+
+class SearchPackagesTest extends FlightFixture {
+    private Flight flight(String to, String city, String arrive, double price) {
+        Flight flight = flight("A", to, "3/1/2022 08:00", arrive, price);
+        flight.setCityTo(city);
+        return flight;
+    }
+
+    private Hotel hotel(String location, int price) {
+        List<Bookable> rooms = new ArrayList<>();
+        Hotel hotel = new Hotel(rooms, "smith", 0.0, location);
+        rooms.add(new Room(new BasicDBObject("row", 1).append("col", "A").append("price", price)
+                .append("info", "").append("sleepingCapacity", 2)
+                .append("bookedDays", new ArrayList<String>()), hotel));
+        fakeData.hotels.add(hotel);
+        return hotel;
+    }
+
+    @Test
+    void testJoinsOnCityAndArrivalNight() {
+        flight("B", "Dallas", "3/1/2022 10:00", 100);
+        flight("B", "Dallas", "3/2/2022 01:00", 50);
+        Hotel dallas = hotel("dallas", 80);
+        Hotel cheap = hotel("Dallas", 10);
+        cheap.getOptions().get(0).bookRange(LocalDate.of(2022, 3, 3),
+                LocalDate.of(2022, 3, 3));
+        hotel("Houston", 1);
+
+        var prefs = new SearchPreferences();
+        prefs.fPref.put(FlightFilter.AIRPORT_FROM, "A");
+        prefs.fPref.put(FlightFilter.AIRPORT_TO, "B");
+        List<TravelPackage> packages = SearchPackages.execute(prefs, 2, 10);
+
+        // the cheap hotel is booked on the second night of the late trip's stay
+        assertEquals(3, packages.size());
+        assertEquals(cheap, packages.get(0).getHotel());
+        assertEquals(120, packages.get(0).getMinCost());
+        assertEquals(LocalDate.of(2022, 3, 1), packages.get(0).getCheckIn());
+        assertEquals(dallas, packages.get(1).getHotel());
+        assertEquals(210, packages.get(1).getMinCost());
+        assertEquals(LocalDate.of(2022, 3, 2), packages.get(1).getCheckIn());
+        assertEquals(LocalDate.of(2022, 3, 3), packages.get(1).getLastNight());
+        assertEquals(260, packages.get(2).getMinCost());
+    }
+
+    @Test
+    void testKeepsTopK() {
+        flight("B", "Dallas", "3/1/2022 10:00", 100);
+        for (int i = 0; i < 10; i++)
+            hotel("Dallas", 100 - i);
+
+        var prefs = new SearchPreferences();
+        prefs.fPref.put(FlightFilter.AIRPORT_FROM, "A");
+        prefs.fPref.put(FlightFilter.AIRPORT_TO, "B");
+        List<TravelPackage> packages = SearchPackages.execute(prefs, 1, 3);
+
+        assertEquals(3, packages.size());
+        assertEquals(191, packages.get(0).getMinCost());
+        assertTrue(packages.get(1).getMinCost() <= packages.get(2).getMinCost());
+    }
+
+    @Test
+    void testCheapTripOutsideShortestByDistance() {
+        // many short expensive trips, the only cheap one flies a long way round
+        for (int i = 0; i < 20; i++)
+            flight("A", "B", "3/1/2022 08:00", "3/1/2022 09:00", 500, 0, 0, 0, 1)
+                    .setCityTo("Dallas");
+        flight("A", "C", "3/1/2022 08:00", "3/1/2022 09:00", 10, 0, 0, 40, 0);
+        Flight cheap = flight("C", "B", "3/1/2022 10:00", "3/1/2022 11:00", 10, 40, 0, 0, 1);
+        cheap.setCityTo("Dallas");
+        hotel("Dallas", 50);
+
+        var prefs = new SearchPreferences();
+        prefs.fPref.put(FlightFilter.AIRPORT_FROM, "A");
+        prefs.fPref.put(FlightFilter.AIRPORT_TO, "B");
+        List<TravelPackage> packages = SearchPackages.execute(prefs, 1, 2);
+
+        assertEquals(2, packages.size());
+        assertEquals(70, packages.get(0).getMinCost());
+        assertEquals(cheap, packages.get(0).getTrip().getFlights().get(1));
+        assertEquals(550, packages.get(1).getMinCost());
+    }
+}
@@ -0,0 +1,67 @@
+package travel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.*;
+import model.bookables.hotel.BookingCalendar;
+
+class BookingCalendarTest {
+    private static final LocalDate DAY = LocalDate.of(2022, 3, 10);
+
+    @Test
+    void testRangeAcrossWords() {
+        BookingCalendar calendar = new BookingCalendar();
+        calendar.book(DAY, DAY.plusDays(100));
+
+        assertTrue(calendar.isBooked(DAY.minusDays(5), DAY));
+        assertTrue(calendar.isBooked(DAY.plusDays(100), DAY.plusDays(200)));
+        assertFalse(calendar.isBooked(DAY.minusDays(5), DAY.minusDays(1)));
+        assertFalse(calendar.isBooked(DAY.plusDays(101), DAY.plusDays(300)));
+    }
+
+    @Test
+    void testUnbookMiddle() {
+        BookingCalendar calendar = new BookingCalendar();
+        calendar.book(DAY, DAY.plusDays(9));
+        calendar.unbook(DAY.plusDays(3), DAY.plusDays(5));
+
+        assertFalse(calendar.isBooked(DAY.plusDays(3), DAY.plusDays(5)));
+        assertTrue(calendar.isBooked(DAY.plusDays(2)));
+        assertTrue(calendar.isBooked(DAY.plusDays(6)));
+        assertEquals(7, calendar.getDays().size());
+    }
+
+    @Test
+    void testGrowsBackwards() {
+        BookingCalendar calendar = new BookingCalendar();
+        calendar.book(DAY, DAY);
+        calendar.book(DAY.minusDays(1000), DAY.minusDays(1000));
+
+        assertEquals(List.of(DAY.minusDays(1000), DAY), calendar.getDays());
+    }
+
+    @Test
+    void testHugeRangeKeptAsRange() {
+        BookingCalendar calendar = new BookingCalendar();
+        calendar.book(LocalDate.MIN, LocalDate.MAX);
+        calendar.unbook(DAY, DAY.plusDays(1));
+
+        assertTrue(calendar.isBooked(DAY.minusDays(1)));
+        assertFalse(calendar.isBooked(DAY, DAY.plusDays(1)));
+        assertTrue(calendar.isBooked(DAY, DAY.plusDays(2)));
+    }
+
+    @Test
+    void testDaysRoundTrip() {
+        BookingCalendar calendar = new BookingCalendar();
+        calendar.book(DAY, DAY.plusDays(2));
+        calendar.book(DAY.plusDays(70), DAY.plusDays(70));
+
+        BookingCalendar copy = new BookingCalendar(calendar.getDays());
+        assertEquals(calendar.getDays(), copy.getDays());
+        assertEquals(4, copy.getDays().size());
+    }
+}
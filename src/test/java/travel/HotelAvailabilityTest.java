@@ -0,0 +1,93 @@
+package travel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.*;
+import model.bookables.Bookable;
+import model.bookables.hotel.Hotel;
+import model.bookables.hotel.Room;
+
+class HotelAvailabilityTest {
+    private static final LocalDate TODAY = LocalDate.now();
+
+    private Hotel hotel(int rooms) {
+        List<Bookable> bookables = new ArrayList<>();
+        Hotel hotel = new Hotel(bookables, "smith", 0.0, "earth");
+        for (int i = 0; i < rooms; i++)
+            bookables.add(new Room(1, Integer.toString(i), 2, hotel));
+        return hotel;
+    }
+
+    @Test
+    void testSameRoomNeededAllStay() {
+        Hotel hotel = hotel(2);
+        Room first = hotel.getOptions().get(0);
+        Room second = hotel.getOptions().get(1);
+        // every day has a free room but no room is free for both days
+        first.bookRange(TODAY, TODAY);
+        second.bookRange(TODAY.plusDays(1), TODAY.plusDays(1));
+
+        assertTrue(hotel.hasAvailableRoom(TODAY, TODAY));
+        assertFalse(hotel.hasAvailableRoom(TODAY, TODAY.plusDays(1)));
+        assertEquals(0, hotel.getNumAvailableRooms(TODAY, TODAY.plusDays(1)));
+
+        first.unbookRange(TODAY, TODAY);
+        assertEquals(1, hotel.getNumAvailableRooms(TODAY, TODAY.plusDays(1)));
+        assertEquals(List.of(first), hotel.getAvailableOptions(TODAY, TODAY.plusDays(1)));
+    }
+
+    @Test
+    void testRoomAddedLater() {
+        List<Bookable> bookables = new ArrayList<>();
+        Hotel hotel = new Hotel(bookables, "smith", 0.0, "earth");
+        assertFalse(hotel.hasAvailableRoom(TODAY, TODAY));
+
+        bookables.add(new Room(1, "A", 2, hotel));
+        assertTrue(hotel.hasAvailableRoom(TODAY, TODAY));
+    }
+
+    @Test
+    void testMatchesRoomScan() {
+        Hotel hotel = hotel(150);
+        Random random = new Random(12);
+        for (int i = 0; i < 400; i++) {
+            Room room = hotel.getOptions().get(random.nextInt(150));
+            LocalDate from = TODAY.plusDays(random.nextInt(60));
+            LocalDate to = from.plusDays(random.nextInt(10));
+            if (random.nextInt(4) == 0)
+                room.unbookRange(from, to);
+            else
+                room.bookRange(from, to);
+
+            LocalDate stayFrom = TODAY.plusDays(random.nextInt(60));
+            LocalDate stayTo = stayFrom.plusDays(random.nextInt(5));
+            int free = 0;
+            for (Room option : hotel.getOptions())
+                if (!option.isBooked(stayFrom, stayTo))
+                    free++;
+            assertEquals(free, hotel.getNumAvailableRooms(stayFrom, stayTo));
+            assertEquals(free > 0, hotel.hasAvailableRoom(stayFrom, stayTo));
+        }
+    }
+
+    @Test
+    void testStaysFarApart() {
+        Hotel hotel = hotel(2);
+        Room first = hotel.getOptions().get(0);
+        LocalDate later = TODAY.plusYears(5);
+        first.bookRange(TODAY, TODAY);
+        first.bookRange(later, later);
+
+        assertEquals(1, hotel.getNumAvailableRooms(TODAY, TODAY));
+        assertEquals(1, hotel.getNumAvailableRooms(later, later));
+        assertEquals(2, hotel.getNumAvailableRooms(later.plusDays(1), later.plusDays(1)));
+        assertEquals(1, hotel.getNumAvailableRooms(TODAY, TODAY));
+        // too long for one window, every room's calendar is checked
+        assertEquals(1, hotel.getNumAvailableRooms(TODAY, later));
+    }
+}
@@ -1,12 +1,16 @@
 package travel;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertIterableEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import com.mongodb.DBObject;
 import org.junit.jupiter.api.*;
 import database.Data;
 import database.FakeData;
@@ -76,4 +80,78 @@ public class TravelObjectsTest {
         fakeRoom.bookRange(LocalDate.now(), LocalDate.now());
         assertTrue(fakeRoom.isBooked(LocalDate.now(), LocalDate.now()));
     }
+
+    @Test
+    void priceStatsFollowBookings() {
+        var seats = new ArrayList<Bookable>();
+        Flight flight = new Flight(LocalDateTime.now(), LocalDateTime.now(), "A", "B", seats,
+                "AA", 0.0, 0.0, 0.0, 0.0, 0.0);
+        Seat cheap = new Seat(1, "A", false, 50, flight);
+        Seat mid = new Seat(1, "B", false, 100, flight);
+        seats.add(cheap);
+        seats.add(mid);
+        seats.add(new Seat(1, "C", false, 150, flight));
+
+        assertEquals(50, flight.getMinCost());
+        cheap.book();
+        assertEquals(100, flight.getMinCost());
+        assertEquals(150, flight.getMaxCost());
+        assertEquals(125, flight.getAvgCost());
+        assertEquals(50, flight.getMinListedCost());
+        assertEquals(2, flight.getPriceStats().getCount("First Class"));
+
+        mid.book();
+        cheap.unbook();
+        assertEquals(50, flight.getMinCost());
+        assertEquals(100, flight.getAvgCost());
+
+        // stats built before a seat is added are rebuilt
+        seats.add(new Seat(2, "A", false, 10, flight));
+        assertEquals(10, flight.getMinCost());
+    }
+
+    @Test
+    void bookingMarksDirty() {
+        var seats = new ArrayList<Bookable>();
+        Flight flight = new Flight(LocalDateTime.now(), LocalDateTime.now(), "A", "B", seats,
+                "AA", 0.0, 0.0, 0.0, 0.0, 0.0);
+        Seat seat = new Seat(1, "A", false, 50, flight);
+        seats.add(seat);
+
+        assertTrue(flight.isDirty());
+        flight.markClean();
+        assertFalse(flight.isDirty());
+        assertFalse(seat.isDirty());
+
+        seat.book();
+        assertTrue(seat.isDirty());
+        assertTrue(flight.isDirty());
+    }
+
+    @Test
+    void bookablesWriteOnlyTheirChanges() {
+        var seats = new ArrayList<Bookable>();
+        Flight flight = new Flight(LocalDateTime.now(), LocalDateTime.now(), "A", "B", seats,
+                "AA", 0.0, 0.0, 0.0, 0.0, 0.0);
+        Seat seat = new Seat(1, "A", false, 50, flight);
+        seats.add(seat);
+        flight.markClean();
+
+        seat.book();
+        assertTrue(flight.isDirty());
+        assertFalse(flight.isDocumentDirty());
+        var set = (DBObject) seat.getUpdate("bookables.$").get("$set");
+        assertEquals(Set.of("bookables.$.isBooked", "bookables.$.owner"), set.keySet());
+        assertEquals(true, set.get("bookables.$.isBooked"));
+
+        Room room = new Room(1, "A", 2, new Hotel());
+        room.markClean();
+        room.bookRange(LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 2));
+        var added = (DBObject) room.getUpdate("bookables.$").get("$addToSet");
+        assertEquals(List.of("1/1/2022", "1/2/2022"), ((DBObject) added.get("bookables.$.bookedDays")).get("$each"));
+
+        room.unbookRange(LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 1));
+        var set2 = (DBObject) room.getUpdate("bookables.$").get("$set");
+        assertEquals(List.of("1/2/2022"), set2.get("bookables.$.bookedDays"));
+    }
 }